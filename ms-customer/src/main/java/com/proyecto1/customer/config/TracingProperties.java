@@ -0,0 +1,22 @@
+package com.proyecto1.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    // none: solo propagacion y correlacion en logs; file: spans en JSON por linea; memory: en el proceso (pruebas)
+    private String exporter = "none";
+
+    private String file = "spans.jsonl";
+
+    // Spans pendientes de escribir; con la cola llena se descartan en lugar de frenar las peticiones
+    private int queueSize = 10000;
+
+    private int memoryCapacity = 1000;
+}
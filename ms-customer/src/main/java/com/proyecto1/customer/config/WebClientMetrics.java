@@ -0,0 +1,98 @@
+package com.proyecto1.customer.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.actuate.metrics.web.reactive.client.WebClientExchangeTags;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Complementa el timer http.client.requests de Spring Boot con peticiones en curso,
+// tamano de los cuerpos y errores por servicio destino y plantilla de URI.
+@Component
+public class WebClientMetrics implements ExchangeFilterFunction {
+
+    static final String IN_FLIGHT = "http.client.requests.active";
+    static final String PAYLOAD = "http.client.requests.payload";
+    static final String ERRORS = "http.client.requests.errors";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public WebClientMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        Tag target = WebClientTagsProvider.clientName(request);
+        Tags tags = Tags.of(target, WebClientTagsProvider.uri(request));
+        AtomicInteger active = inFlight(target);
+        AtomicLong sent = new AtomicLong();
+        ClientRequest counted = ClientRequest.from(request)
+                .body((message, context) -> request.body().insert(new ClientHttpRequestDecorator(message) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                        return super.writeWith(Flux.from(body)
+                                .doOnNext(buffer -> sent.addAndGet(buffer.readableByteCount())));
+                    }
+                }, context))
+                .build();
+        return Mono.defer(() -> {
+                    active.incrementAndGet();
+                    return next.exchange(counted);
+                })
+                .doFinally(signal -> active.decrementAndGet())
+                .doOnError(e -> error(request, tags, e.getClass().getSimpleName()))
+                .map(response -> {
+                    if (sent.get() > 0) {
+                        payload(tags, "request").record(sent.get());
+                    }
+                    if (response.rawStatusCode() >= 400) {
+                        error(request, tags, "HTTP_" + response.rawStatusCode());
+                    }
+                    return measured(response, tags);
+                });
+    }
+
+    // El cuerpo se cuenta al consumirlo; si el cliente lo descarta no se registra tamano.
+    private ClientResponse measured(ClientResponse response, Tags tags) {
+        AtomicLong received = new AtomicLong();
+        return response.mutate()
+                .body(body -> body
+                        .doOnNext(buffer -> received.addAndGet(buffer.readableByteCount()))
+                        .doOnComplete(() -> payload(tags, "response").record(received.get())))
+                .build();
+    }
+
+    private AtomicInteger inFlight(Tag target) {
+        return inFlight.computeIfAbsent(target.getValue(),
+                name -> registry.gauge(IN_FLIGHT, Tags.of(target), new AtomicInteger()));
+    }
+
+    private DistributionSummary payload(Tags tags, String direction) {
+        return DistributionSummary.builder(PAYLOAD)
+                .baseUnit("bytes")
+                .tags(tags.and("direction", direction))
+                .register(registry);
+    }
+
+    private void error(ClientRequest request, Tags tags, String error) {
+        registry.counter(ERRORS, tags.and(WebClientExchangeTags.method(request)).and("error", error)).increment();
+    }
+}
@@ -1,11 +1,14 @@
 package com.proyecto1.customer.controller;
 
 import com.proyecto1.customer.dto.CustomerDTO;
+import com.proyecto1.customer.dto.KeysetPage;
 import com.proyecto1.customer.entity.Customer;
 import com.proyecto1.customer.service.CustomerService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,10 +21,15 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
-    @GetMapping("/findAll")
-    public Flux<Customer> getCustomers(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Customer>>> getCustomers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call findAll - customer");
-        return customerService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(customerService.findAll()));
+        }
+        return customerService.findPage(after, limit).map(KeysetPage::toResponse);
     }
 
     @GetMapping("/find/{id}")
@@ -1,6 +1,7 @@
 package com.proyecto1.customer.service;
 
 import com.proyecto1.customer.dto.CustomerDTO;
+import com.proyecto1.customer.dto.KeysetPage;
 import com.proyecto1.customer.entity.Customer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -9,6 +10,8 @@ public interface CustomerService {
 
     Flux<Customer> findAll();
 
+    Mono<KeysetPage<Customer>> findPage(String after, Integer limit);
+
     Mono<Customer> create(CustomerDTO c);
 
     Mono<Customer> findById(String id);
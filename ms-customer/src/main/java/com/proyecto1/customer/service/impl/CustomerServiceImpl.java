@@ -1,6 +1,9 @@
 package com.proyecto1.customer.service.impl;
 
+import com.proyecto1.customer.client.TransactionClient;
+import com.proyecto1.customer.config.KeysetPager;
 import com.proyecto1.customer.dto.CustomerDTO;
+import com.proyecto1.customer.dto.KeysetPage;
 import com.proyecto1.customer.entity.Customer;
 import com.proyecto1.customer.repository.CustomerRepository;
 import com.proyecto1.customer.service.CustomerService;
@@ -18,6 +21,10 @@ public class CustomerServiceImpl implements CustomerService {
     private static final Logger log = LogManager.getLogger(CustomerServiceImpl.class);
     @Autowired
     CustomerRepository customerRepository;
+    @Autowired
+    KeysetPager keysetPager;
+    @Autowired
+    TransactionClient transactionClient;
 
     @Override
     public Flux<Customer> findAll() {
@@ -25,6 +32,12 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Customer>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - customer");
+        return keysetPager.page(Customer.class, after, limit, Customer::getId);
+    }
+
     @Override
     public Mono<Customer> create(CustomerDTO c) {
         log.info("Method call Create - customer");
@@ -53,13 +66,16 @@ public class CustomerServiceImpl implements CustomerService {
                     x.setTypeCustomer(c.getTypeCustomer());
                     x.setDescTypeCustomer(c.getDescTypeCustomer());
                     return x;
-                }).flatMap(customerRepository::save);
+                }).flatMap(customerRepository::save)
+                .flatMap(x -> transactionClient.evictCustomer(id).thenReturn(x));
     }
 
     @Override
     public Mono<Customer> delete(String id) {
         log.info("Method call Delete - customer");
         return customerRepository.findById(id).flatMap(
-                x -> customerRepository.delete(x).then(Mono.just(new Customer())));
+                x -> customerRepository.delete(x)
+                        .then(transactionClient.evictCustomer(id))
+                        .then(Mono.just(new Customer())));
     }
 }
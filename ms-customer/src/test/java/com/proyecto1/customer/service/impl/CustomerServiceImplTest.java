@@ -1,5 +1,6 @@
 package com.proyecto1.customer.service.impl;
 
+import com.proyecto1.customer.client.TransactionClient;
 import com.proyecto1.customer.controller.CustomerController;
 import com.proyecto1.customer.dto.CustomerDTO;
 import com.proyecto1.customer.entity.Customer;
@@ -34,6 +35,9 @@ public class CustomerServiceImplTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private TransactionClient transactionClient;
+
     @InjectMocks
     private CustomerServiceImpl customerServiceImpl;
 
@@ -76,6 +80,8 @@ public class CustomerServiceImplTest {
 
         Mockito.when(customerRepository.save(customer)).thenReturn(Mono.just(customer));
 
+        Mockito.when(transactionClient.evictCustomer(id)).thenReturn(Mono.empty());
+
         assertDoesNotThrow(() -> customerServiceImpl.update(customerMono, id)
                 .subscribe(response -> {
                     assertEquals(customerMono.getLastName(), response.getLastName());
@@ -134,6 +140,7 @@ public class CustomerServiceImplTest {
 
         Mockito.when(customerRepository.findById("unhb2342342342")).thenReturn(Mono.just(customerMono));
         Mockito.when(customerRepository.delete(customerMono)).thenReturn(Mono.empty());
+        Mockito.when(transactionClient.evictCustomer(id)).thenReturn(Mono.empty());
 
         assertDoesNotThrow(() -> customerServiceImpl.delete(id)
                 .subscribe(response -> {
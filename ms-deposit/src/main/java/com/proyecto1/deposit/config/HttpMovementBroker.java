@@ -0,0 +1,28 @@
+package com.proyecto1.deposit.config;
+
+import com.proyecto1.deposit.client.TransactionClient;
+import com.proyecto1.deposit.dto.MovementDTO;
+import com.proyecto1.deposit.entity.OutboxEvent;
+
+import reactor.core.publisher.Mono;
+
+// Entrega directa a ms-transaction; el eventId hace que un reintento no se aplique dos veces
+public class HttpMovementBroker implements MovementBroker {
+
+    private final TransactionClient transactionClient;
+
+    public HttpMovementBroker(TransactionClient transactionClient) {
+        this.transactionClient = transactionClient;
+    }
+
+    @Override
+    public Mono<Void> publish(OutboxEvent event) {
+        MovementDTO movement = MovementDTO.builder()
+                .type(event.getType())
+                .amount(event.getAmount())
+                .count(event.getCount())
+                .eventId(event.getId())
+                .build();
+        return transactionClient.applyMovement(event.getTransactionId(), movement);
+    }
+}
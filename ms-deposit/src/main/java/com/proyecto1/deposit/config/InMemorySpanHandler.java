@@ -0,0 +1,50 @@
+package com.proyecto1.deposit.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+// Colector en memoria: guarda los ultimos spans terminados para pruebas y diagnostico local.
+public class InMemorySpanHandler extends SpanHandler {
+
+    private final int capacity;
+    private final ConcurrentLinkedDeque<MutableSpan> spans = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public InMemorySpanHandler(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED) {
+            return true;
+        }
+        spans.addLast(span);
+        if (size.incrementAndGet() > capacity && spans.pollFirst() != null) {
+            size.decrementAndGet();
+        }
+        return true;
+    }
+
+    public List<MutableSpan> spans() {
+        return new ArrayList<>(spans);
+    }
+
+    public List<MutableSpan> trace(String traceId) {
+        return spans.stream()
+                .filter(span -> traceId.equals(span.traceId()))
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        spans.clear();
+        size.set(0);
+    }
+}
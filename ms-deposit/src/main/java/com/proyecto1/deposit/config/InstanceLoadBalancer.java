@@ -0,0 +1,125 @@
+package com.proyecto1.deposit.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+// Elige la instancia con menos peticiones en curso, o con menor latencia esperada (EWMA x peticiones en curso)
+public class InstanceLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger log = LogManager.getLogger(InstanceLoadBalancer.class);
+    private static final double EWMA_WEIGHT = 0.2;
+
+    public enum Strategy { LEAST_OUTSTANDING, LATENCY }
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final Strategy strategy;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+
+    public InstanceLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId, Strategy strategy) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.strategy = strategy;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        // Sin supplier o sin lista se responde vacio para que el filtro devuelva 503 en lugar de quedarse sin respuesta
+        return supplier.get(request).next().defaultIfEmpty(Collections.emptyList()).map(this::select);
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: " + serviceId);
+            return new EmptyResponse();
+        }
+        // Se rota el punto de inicio para repartir los empates
+        int offset = (position.incrementAndGet() & Integer.MAX_VALUE) % instances.size();
+        ServiceInstance best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance candidate = instances.get((offset + i) % instances.size());
+            double score = score(statsFor(candidate));
+            if (score < bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return new DefaultResponse(best);
+    }
+
+    private double score(Stats instance) {
+        int inFlight = instance.inFlight.get();
+        if (strategy == Strategy.LEAST_OUTSTANDING) {
+            return inFlight;
+        }
+        return instance.latencyNanos * (inFlight + 1);
+    }
+
+    private Stats statsFor(ServiceInstance instance) {
+        String key = instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ":" + instance.getPort();
+        return stats.computeIfAbsent(key, k -> new Stats());
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext) {
+            ((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            statsFor(lbResponse.getServer()).inFlight.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        Stats instance = statsFor(lbResponse.getServer());
+        instance.inFlight.decrementAndGet();
+        Object context = completionContext.getLoadBalancerRequest().getContext();
+        if (context instanceof TimedRequestContext && ((TimedRequestContext) context).getRequestStartTime() > 0) {
+            instance.record(System.nanoTime() - ((TimedRequestContext) context).getRequestStartTime());
+        }
+    }
+
+    private static class Stats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double latencyNanos;
+
+        private synchronized void record(long elapsedNanos) {
+            latencyNanos = latencyNanos == 0 ? elapsedNanos : latencyNanos + EWMA_WEIGHT * (elapsedNanos - latencyNanos);
+        }
+    }
+}
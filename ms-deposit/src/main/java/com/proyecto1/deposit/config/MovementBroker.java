@@ -0,0 +1,11 @@
+package com.proyecto1.deposit.config;
+
+import com.proyecto1.deposit.entity.OutboxEvent;
+
+import reactor.core.publisher.Mono;
+
+// Destino de los eventos del outbox; la implementacion se elige con outbox.broker
+public interface MovementBroker {
+
+    Mono<Void> publish(OutboxEvent event);
+}
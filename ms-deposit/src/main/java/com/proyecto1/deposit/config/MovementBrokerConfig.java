@@ -0,0 +1,30 @@
+package com.proyecto1.deposit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto1.deposit.client.TransactionClient;
+
+@Configuration
+public class MovementBrokerConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "outbox", name = "broker", havingValue = "http", matchIfMissing = true)
+    public MovementBroker httpMovementBroker(TransactionClient transactionClient) {
+        return new HttpMovementBroker(transactionClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "outbox", name = "broker", havingValue = "kafka")
+    public MovementBroker kafkaMovementBroker(OutboxProperties outboxProperties, ObjectMapper objectMapper) {
+        return new KafkaMovementBroker(outboxProperties, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "outbox", name = "broker", havingValue = "memory")
+    public MovementBroker inMemoryMovementBroker() {
+        return new InMemoryMovementBroker();
+    }
+}
@@ -0,0 +1,108 @@
+package com.proyecto1.deposit.config;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.proyecto1.deposit.entity.OutboxEvent;
+import com.proyecto1.deposit.repository.OutboxRepository;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Publica los eventos pendientes del outbox en el broker configurado. La entrega es al menos una vez:
+// ms-transaction descarta por eventId los eventos que ya aplico
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LogManager.getLogger(OutboxRelay.class);
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    MovementBroker movementBroker;
+
+    @Autowired
+    OutboxProperties outboxProperties;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!outboxProperties.isRelayEnabled()) {
+            return;
+        }
+        // Un lote a la vez: si uno tarda mas que el intervalo, los ticks intermedios se descartan
+        subscription = Flux.interval(outboxProperties.getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> relayPending(), 1)
+                .subscribe(null, e -> log.error("Outbox relay stopped - deposit: " + e.getMessage()));
+    }
+
+    // Publica en orden de creacion. Si un evento falla, los siguientes de la misma cuenta esperan al
+    // proximo ciclo para no adelantarse; los de las demas cuentas se siguen publicando
+    public Mono<Long> relayPending() {
+        Set<String> blocked = new HashSet<>();
+        return outboxRepository.findByPublishedAtIsNullAndParkedAtIsNullOrderByCreatedAtAsc(PageRequest.of(0, outboxProperties.getBatchSize()))
+                .concatMap(event -> blocked.contains(event.getTransactionId()) ? Mono.<OutboxEvent>empty()
+                        : publish(event).onErrorResume(e -> {
+                            blocked.add(event.getTransactionId());
+                            return Mono.empty();
+                        }))
+                .count()
+                .onErrorResume(e -> {
+                    log.warn("Outbox relay batch interrupted - deposit: " + e.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    private Mono<OutboxEvent> publish(OutboxEvent event) {
+        return movementBroker.publish(event)
+                .then(Mono.defer(() -> {
+                    event.setPublishedAt(Instant.now());
+                    return outboxRepository.save(event);
+                }))
+                .onErrorResume(e -> failed(event, e));
+    }
+
+    // Los errores transitorios (red, 5xx, broker caido o timeouts de Kafka) se reintentan sin limite. Un rechazo definitivo
+    // se reintenta hasta maxAttempts y luego el evento se aparta para revisarlo, sin frenar a su cuenta
+    private Mono<OutboxEvent> failed(OutboxEvent event, Throwable error) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error.getMessage());
+        if (isRejected(error) && event.getAttempts() >= outboxProperties.getMaxAttempts()) {
+            event.setParkedAt(Instant.now());
+            log.error("Outbox event " + event.getId() + " parked after " + event.getAttempts() + " attempts - deposit: " + error.getMessage());
+        }
+        return outboxRepository.save(event).then(Mono.error(error));
+    }
+
+    private static boolean isRejected(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            return ((WebClientResponseException) error).getStatusCode().is4xxClientError();
+        }
+        return error instanceof KafkaException && !(error instanceof RetriableException);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.proyecto1.deposit.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+// Las peticiones simultaneas con la misma clave comparten una sola llamada en curso.
+// Al terminar la llamada se libera la clave, asi que no actua como cache.
+public class SingleFlight<T> {
+
+    private final Map<String, Mono<T>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    public Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            requests.increment();
+            return inFlight.computeIfAbsent(key, k -> {
+                calls.increment();
+                AtomicReference<Mono<T>> shared = new AtomicReference<>();
+                shared.set(call.get()
+                        .doFinally(signal -> inFlight.remove(k, shared.get()))
+                        .cache());
+                return shared.get();
+            });
+        });
+    }
+
+    public Map<String, Object> stats() {
+        long requestCount = requests.sum();
+        long callCount = calls.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requestCount);
+        stats.put("calls", callCount);
+        stats.put("inFlight", inFlight.size());
+        stats.put("dedupRatio", requestCount == 0 ? 0.0 : 1.0 - (double) callCount / requestCount);
+        return stats;
+    }
+}
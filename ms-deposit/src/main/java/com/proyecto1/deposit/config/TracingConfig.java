@@ -0,0 +1,24 @@
+package com.proyecto1.deposit.config;
+
+import java.nio.file.Paths;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Sleuth entrega cada span terminado a los SpanHandler registrados; el exportador se elige por configuracion.
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing", name = "exporter", havingValue = "file")
+    public FileSpanHandler fileSpanHandler(TracingProperties tracingProperties) {
+        return new FileSpanHandler(Paths.get(tracingProperties.getFile()), tracingProperties.getQueueSize());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tracing", name = "exporter", havingValue = "memory")
+    public InMemorySpanHandler inMemorySpanHandler(TracingProperties tracingProperties) {
+        return new InMemorySpanHandler(tracingProperties.getMemoryCapacity());
+    }
+}
@@ -1,13 +1,22 @@
 package com.proyecto1.deposit.controller;
 
+import com.proyecto1.deposit.dto.BatchResult;
 import com.proyecto1.deposit.dto.DepositDTO;
+import com.proyecto1.deposit.dto.KeysetPage;
 import com.proyecto1.deposit.entity.Deposit;
 import com.proyecto1.deposit.service.DepositService;
 
 import com.proyecto1.deposit.service.impl.DepositServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -20,10 +29,15 @@ public class DepositController {
     @Autowired
     private DepositService depositService;
 
-    @GetMapping("/findAll")
-    public Flux<Deposit> getDeposits(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Deposit>>> getDeposits(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call findAll - deposit");
-        return depositService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(depositService.findAll()));
+        }
+        return depositService.findPage(after, limit).map(KeysetPage::toResponse);
     }
 
     @GetMapping("/find/{id}")
@@ -32,12 +46,35 @@ public class DepositController {
         return depositService.findById(id);
     }
 
+    @GetMapping(value = "/findByTransactionId/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Deposit> getDepositsByTransactionId(@PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        log.info("Service call findByTransactionId - deposit");
+        if (from == null && to == null) {
+            return depositService.findByTransactionId(id);
+        }
+        return depositService.findByTransactionId(id, from, to);
+    }
+
+    @GetMapping(value = "/findByTransactionIds", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Deposit> getDepositsByTransactionIds(@RequestParam List<String> ids){
+        log.info("Service call findByTransactionIds - deposit");
+        return depositService.findByTransactionIds(ids);
+    }
+
     @PostMapping("/create")
     public Mono<Deposit> createDeposit(@RequestBody DepositDTO c){
         log.info("Service call create - deposit");
         return depositService.create(c);
     }
 
+    @PostMapping(value = "/createBatch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchResult> createDepositBatch(@RequestBody Flux<DepositDTO> deposits){
+        log.info("Service call createBatch - deposit");
+        return depositService.createBatch(deposits);
+    }
+
     @PutMapping("/update/{id}")
     public Mono<Deposit> updateDeposit(@RequestBody DepositDTO c, @PathVariable String id){
         log.info("Service call update - deposit");
@@ -0,0 +1,23 @@
+package com.proyecto1.deposit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    // Posicion del registro en el lote recibido
+    private long index;
+    private String id;
+    private String transactionId;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,40 @@
+package com.proyecto1.deposit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.ResponseEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import reactor.core.publisher.Flux;
+
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<T> items;
+    // Valor para el parametro after de la siguiente pagina; null si no hay mas
+    private String nextCursor;
+
+    // Se lee un elemento de mas para saber si hay otra pagina sin hacer un count
+    public static <T> KeysetPage<T> of(List<T> fetched, int limit, Function<T, String> idOf) {
+        if (fetched.size() <= limit) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<T> items = new ArrayList<>(fetched.subList(0, limit));
+        return new KeysetPage<>(items, idOf.apply(items.get(limit - 1)));
+    }
+
+    public ResponseEntity<Flux<T>> toResponse() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder.body(Flux.fromIterable(items));
+    }
+}
@@ -0,0 +1,51 @@
+package com.proyecto1.deposit.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Movimiento pendiente de entregar a ms-transaction; se guarda junto con el movimiento y lo publica OutboxRelay
+@Document(collection = "schema_dep.outbox")
+@CompoundIndex(name = "pending", def = "{'publishedAt': 1, 'createdAt': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    private String id;
+    private String transactionId;
+    private String type;
+    private BigDecimal amount;
+    private int count;
+    private Instant createdAt;
+    // Los eventos publicados se eliminan solos despues de una semana
+    @Indexed(name = "published_ttl", expireAfter = "7d")
+    private Instant publishedAt;
+    private int attempts;
+    private String lastError;
+    // Rechazado en forma definitiva despues de outbox.max-attempts; el relay ya no lo publica
+    private Instant parkedAt;
+
+    public static OutboxEvent movement(String type, String transactionId, BigDecimal amount, int count) {
+        return OutboxEvent.builder()
+                .id(ObjectId.get().toString())
+                .type(type)
+                .transactionId(transactionId)
+                .amount(amount)
+                .count(count)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
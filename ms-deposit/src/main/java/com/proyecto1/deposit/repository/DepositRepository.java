@@ -1,10 +1,30 @@
 package com.proyecto1.deposit.repository;
 
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 import com.proyecto1.deposit.entity.Deposit;
 
+import reactor.core.publisher.Flux;
+
 @Repository
-public interface DepositRepository extends ReactiveCrudRepository<Deposit, String> {
+public interface DepositRepository extends ReactiveMongoRepository<Deposit, String> {
+
+    Flux<Deposit> findByTransactionId(String transactionId);
+
+    Flux<Deposit> findByTransactionIdOrderByDateAsc(String transactionId);
+
+    // Rango inclusivo en ambos extremos; el Between derivado excluye los limites
+    @Query(value = "{ 'transactionId': ?0, 'date': { $gte: ?1, $lte: ?2 } }", sort = "{ 'date': 1 }")
+    Flux<Deposit> findByTransactionIdAndDateRange(String transactionId, LocalDate from, LocalDate to);
+
+    Flux<Deposit> findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(String transactionId, LocalDate from);
+
+    Flux<Deposit> findByTransactionIdAndDateLessThanEqualOrderByDateAsc(String transactionId, LocalDate to);
+
+    Flux<Deposit> findByTransactionIdIn(Collection<String> transactionIds);
 }
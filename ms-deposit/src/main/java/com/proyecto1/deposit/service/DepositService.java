@@ -1,8 +1,13 @@
 package com.proyecto1.deposit.service;
 
+import com.proyecto1.deposit.dto.BatchResult;
 import com.proyecto1.deposit.dto.DepositDTO;
+import com.proyecto1.deposit.dto.KeysetPage;
 import com.proyecto1.deposit.entity.Deposit;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -10,10 +15,20 @@ public interface DepositService {
 
     Flux<Deposit> findAll();
 
+    Mono<KeysetPage<Deposit>> findPage(String after, Integer limit);
+
     Mono<Deposit> create(DepositDTO c);
 
+    Flux<BatchResult> createBatch(Flux<DepositDTO> deposits);
+
     Mono<Deposit> findById(String id);
 
+    Flux<Deposit> findByTransactionId(String id);
+
+    Flux<Deposit> findByTransactionId(String id, LocalDate from, LocalDate to);
+
+    Flux<Deposit> findByTransactionIds(List<String> ids);
+
     Mono<Deposit> update(DepositDTO c, String id);
 
     Mono<Deposit> delete(String id);
@@ -1,26 +1,53 @@
 package com.proyecto1.deposit.service.impl;
 
 import com.proyecto1.deposit.client.TransactionClient;
+import com.proyecto1.deposit.config.KeysetPager;
+import com.proyecto1.deposit.config.OutboxWriter;
+import com.proyecto1.deposit.dto.BatchResult;
 import com.proyecto1.deposit.dto.DepositDTO;
+import com.proyecto1.deposit.dto.KeysetPage;
 import com.proyecto1.deposit.entity.Deposit;
+import com.proyecto1.deposit.entity.OutboxEvent;
 import com.proyecto1.deposit.repository.DepositRepository;
 import com.proyecto1.deposit.service.DepositService;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.bson.types.ObjectId;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Service
 public class DepositServiceImpl implements DepositService {
 
     private static final Logger log = LogManager.getLogger(DepositServiceImpl.class);
+    // Registros por insertMany y validaciones de cuenta concurrentes en createBatch
+    private static final int BATCH_SIZE = 500;
+    private static final int VALIDATION_CONCURRENCY = 16;
     @Autowired
     DepositRepository depositRepository;
 
+    @Autowired
+    KeysetPager keysetPager;
+
+    @Autowired
+    OutboxWriter outboxWriter;
+
     @Autowired
     TransactionClient transactionClient;
 
@@ -30,46 +57,186 @@ public class DepositServiceImpl implements DepositService {
         return depositRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Deposit>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - deposit");
+        return keysetPager.page(Deposit.class, after, limit, Deposit::getId);
+    }
+
     @Override
     public Mono<Deposit> create(DepositDTO c) {
         log.info("Method call create - deposit");
         Deposit deposit = new Deposit();
         BeanUtils.copyProperties(c,deposit);
-        return transactionClient.getTransactionWithDetails(c.getTransactionId())
-                .filter( x -> x.getProduct().getIndProduct() == 2)
+        return transactionClient.getAccountSummary(c.getTransactionId())
+                .filter( x -> x.getIndProduct() == 2)
                 .hasElement()
                 .flatMap( y -> {
                     if(y){
-                        return depositRepository.save(deposit);
+                        return outboxWriter.write(depositRepository.save(deposit),
+                                saved -> movement(saved.getTransactionId(), saved.getDepositAmount(), 1));
                     }else{
                         return Mono.error(new RuntimeException("The account entered is not a bank account"));
                     }
                 });
     }
 
+
+    @Override
+    public Flux<BatchResult> createBatch(Flux<DepositDTO> deposits) {
+        log.info("Method call createBatch - deposit");
+        return deposits.index()
+                .buffer(BATCH_SIZE)
+                .concatMap(this::createChunk);
+    }
+
     @Override
     public Mono<Deposit> findById(String id) {
         log.info("Method call findById - deposit");
         return depositRepository.findById(id);
     }
 
+    @Override
+    public Flux<Deposit> findByTransactionId(String id) {
+        return findByTransactionId(id, null, null);
+    }
+
+    @Override
+    public Flux<Deposit> findByTransactionId(String id, LocalDate from, LocalDate to) {
+        log.info("Method call findByTransactionId - deposit");
+        if (from == null && to == null) {
+            return depositRepository.findByTransactionIdOrderByDateAsc(id);
+        }
+        if (from != null && to != null) {
+            if (from.isAfter(to)) {
+                return Flux.error(new RuntimeException("The start date must not be after the end date"));
+            }
+            return depositRepository.findByTransactionIdAndDateRange(id, from, to);
+        }
+        // Un extremo nulo deja el rango abierto; todas las variantes recorren el indice (transactionId, date)
+        if (from != null) {
+            return depositRepository.findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(id, from);
+        }
+        return depositRepository.findByTransactionIdAndDateLessThanEqualOrderByDateAsc(id, to);
+    }
+
+    @Override
+    public Flux<Deposit> findByTransactionIds(List<String> ids) {
+        log.info("Method call findByTransactionIds - deposit");
+        return depositRepository.findByTransactionIdIn(ids);
+    }
+
     @Override
     public Mono<Deposit> update(DepositDTO c, String id) {
         log.info("Method call update - deposit");
         Deposit deposit = new Deposit();
         BeanUtils.copyProperties(c,deposit);
         return depositRepository.findById(id)
-                .map( x -> {
+                .flatMap( x -> {
+                    BigDecimal delta = amountOf(c.getDepositAmount()).subtract(amountOf(x.getDepositAmount()));
                     x.setDate(c.getDate());
                     x.setDepositAmount(c.getDepositAmount());
                     x.setDescription(c.getDescription());
-                    return x;
-                }).flatMap(depositRepository::save);
+                    return outboxWriter.write(depositRepository.save(x),
+                            saved -> movement(saved.getTransactionId(), delta, 0));
+                });
     }
 
     @Override
     public Mono<Deposit> delete(String id) {
         log.info("Method call delete - deposit");
-        return depositRepository.findById(id).flatMap( x -> depositRepository.delete(x).then(Mono.just(new Deposit())));
+        return depositRepository.findById(id).flatMap( x -> outboxWriter.write(depositRepository.delete(x).thenReturn(x),
+                        deleted -> movement(x.getTransactionId(), amountOf(x.getDepositAmount()).negate(), -1))
+                .then(Mono.just(new Deposit())));
+    }
+
+    // Cada cuenta se valida una sola vez por bloque, los registros validos se insertan en un solo comando
+    // y el saldo se actualiza con un evento por cuenta en lugar de uno por registro
+    private Flux<BatchResult> createChunk(List<Tuple2<Long, DepositDTO>> chunk) {
+        return validateAccounts(chunk)
+                .flatMapMany(rejections -> {
+                    List<Tuple2<Long, Deposit>> accepted = new ArrayList<>();
+                    List<BatchResult> results = new ArrayList<>();
+                    for (Tuple2<Long, DepositDTO> t : chunk) {
+                        String rejection = rejections.getOrDefault(t.getT2().getTransactionId(), "The account entered is not a bank account");
+                        if (rejection.isEmpty()) {
+                            Deposit deposit = new Deposit();
+                            BeanUtils.copyProperties(t.getT2(), deposit);
+                            accepted.add(Tuples.of(t.getT1(), deposit));
+                        } else {
+                            results.add(rejected(t.getT1(), t.getT2().getTransactionId(), rejection));
+                        }
+                    }
+                    return insertAll(accepted)
+                            .flatMapMany(outcomes -> {
+                                results.addAll(outcomes);
+                                results.sort(Comparator.comparingLong(BatchResult::getIndex));
+                                return Flux.fromIterable(results);
+                            });
+                });
+    }
+
+    // Motivo de rechazo por cuenta; cadena vacia si la cuenta es valida
+    private Mono<Map<String, String>> validateAccounts(List<Tuple2<Long, DepositDTO>> chunk) {
+        return Flux.fromStream(chunk.stream().map(t -> t.getT2().getTransactionId()).filter(Objects::nonNull).distinct())
+                .flatMap(id -> transactionClient.getAccountSummary(id)
+                        .map(x -> x.getIndProduct() == 2 ? "" : "The account entered is not a bank account")
+                        .defaultIfEmpty("The account entered is not a bank account")
+                        .onErrorResume(e -> Mono.just("Account validation failed: " + e.getMessage()))
+                        .map(rejection -> Tuples.of(id, rejection)), VALIDATION_CONCURRENCY)
+                .collectMap(Tuple2::getT1, Tuple2::getT2);
+    }
+
+    // Un solo insertMany por bloque; si falla se guarda uno a uno para atribuir el error a cada registro.
+    // Los ids se asignan antes para que el reintento no duplique los que ya quedaron insertados
+    private Mono<List<BatchResult>> insertAll(List<Tuple2<Long, Deposit>> accepted) {
+        if (accepted.isEmpty()) {
+            return Mono.just(new ArrayList<>());
+        }
+        List<Deposit> deposits = accepted.stream().map(Tuple2::getT2).collect(Collectors.toList());
+        deposits.stream().filter(x -> x.getId() == null).forEach(x -> x.setId(ObjectId.get().toString()));
+        return outboxWriter.writeAll(depositRepository.insert(deposits).collectList(), DepositServiceImpl::movements)
+                .then(Mono.fromSupplier(() -> accepted.stream()
+                        .map(t -> created(t.getT1(), t.getT2()))
+                        .collect(Collectors.toList())))
+                .onErrorResume(e -> {
+                    log.warn("Bulk insert failed, saving one by one - deposit: " + e.getMessage());
+                    return Flux.fromIterable(accepted)
+                            .concatMap(t -> outboxWriter.write(depositRepository.save(t.getT2()),
+                                    saved -> movement(saved.getTransactionId(), saved.getDepositAmount(), 1))
+                                    .map(saved -> created(t.getT1(), saved))
+                                    .onErrorResume(error -> Mono.just(rejected(t.getT1(), t.getT2().getTransactionId(), error.getMessage()))))
+                            .collectList();
+                });
+    }
+
+    // Un evento por cuenta con el importe y la cantidad acumulados del bloque
+    private static List<OutboxEvent> movements(List<Deposit> deposits) {
+        Map<String, List<Deposit>> byAccount = deposits.stream()
+                .collect(Collectors.groupingBy(Deposit::getTransactionId, LinkedHashMap::new, Collectors.toList()));
+        return byAccount.entrySet().stream()
+                .map(e -> movement(e.getKey(),
+                        e.getValue().stream().map(x -> amountOf(x.getDepositAmount())).reduce(BigDecimal.ZERO, BigDecimal::add),
+                        e.getValue().size()))
+                .collect(Collectors.toList());
+    }
+
+    private static BatchResult created(long index, Deposit deposit) {
+        return BatchResult.builder().index(index).id(deposit.getId()).transactionId(deposit.getTransactionId())
+                .status(BatchResult.CREATED).build();
+    }
+
+    private static BatchResult rejected(long index, String transactionId, String message) {
+        return BatchResult.builder().index(index).transactionId(transactionId)
+                .status(BatchResult.REJECTED).message(message).build();
+    }
+
+    // El evento queda en el outbox junto con el movimiento y OutboxRelay lo entrega a ms-transaction
+    private static OutboxEvent movement(String transactionId, BigDecimal amount, int count) {
+        return OutboxEvent.movement("DEPOSIT", transactionId, amount, count);
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
     }
 }
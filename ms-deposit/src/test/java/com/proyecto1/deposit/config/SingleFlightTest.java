@@ -0,0 +1,45 @@
+package com.proyecto1.deposit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+// Unico test de SingleFlight: payment, purchase, signatory y withdrawal llevan la misma clase con otro paquete
+public class SingleFlightTest {
+
+    @Test
+    void concurrentRequestsShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        StepVerifier.create(Flux.range(0, 10)
+                        .flatMap(i -> singleFlight.execute("t1",
+                                () -> Mono.fromCallable(() -> "t1-" + calls.incrementAndGet()).delayElement(Duration.ofMillis(50)))))
+                .expectNextCount(10)
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0.9, (double) singleFlight.stats().get("dedupRatio"), 0.0001);
+        assertEquals(0, singleFlight.stats().get("inFlight"));
+    }
+
+    @Test
+    void finishedCallIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        StepVerifier.create(singleFlight.execute("t1", () -> Mono.fromCallable(() -> "t1-" + calls.incrementAndGet())))
+                .expectNext("t1-1")
+                .verifyComplete();
+        StepVerifier.create(singleFlight.execute("t1", () -> Mono.fromCallable(() -> "t1-" + calls.incrementAndGet())))
+                .expectNext("t1-2")
+                .verifyComplete();
+    }
+}
@@ -1,6 +1,8 @@
 package com.proyecto1.deposit.controller;
 
+import com.proyecto1.deposit.dto.BatchResult;
 import com.proyecto1.deposit.dto.DepositDTO;
+import com.proyecto1.deposit.dto.KeysetPage;
 import com.proyecto1.deposit.entity.Deposit;
 import com.proyecto1.deposit.service.DepositService;
 import com.proyecto1.deposit.service.impl.DepositServiceImpl;
@@ -22,6 +24,8 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Mockito.times;
 
@@ -58,6 +62,24 @@ public class DepositControllerTest {
         Mockito.verify(depositService,times(1)).create(depositMono);
     }
 
+    @Test
+    void createBatchFromNdjson() {
+        BatchResult result = BatchResult.builder().index(0).id("62d0b0a1e4b0a1b2c3d4e5f6")
+                .transactionId("234234jnjk2344").status(BatchResult.CREATED).build();
+
+        Mockito.when(depositService.createBatch(Mockito.any())).thenReturn(Flux.just(result));
+
+        webTestClient.post().uri("/deposit/createBatch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"depositAmount\":200,\"transactionId\":\"234234jnjk2344\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchResult.class)
+                .hasSize(1)
+                .contains(result);
+    }
+
     @Test
     void updateDepositTest() {
         DepositDTO depositMono = DepositDTO.builder()
@@ -110,6 +132,107 @@ public class DepositControllerTest {
         Mockito.verify(depositService,times(1)).findAll();
     }
 
+    @Test
+    void findAllAsNdjson() {
+        Deposit first = Deposit.builder().id(ObjectId.get().toString()).transactionId("234234jnjk2344").build();
+        Deposit second = Deposit.builder().id(ObjectId.get().toString()).transactionId("234234jnjk2344").build();
+
+        Mockito.when(depositService.findAll()).thenReturn(Flux.just(first, second));
+
+        webTestClient.get()
+                .uri("/deposit/findAll")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Deposit.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void findAllWithCursor() {
+        Deposit deposit = Deposit.builder().id("62d0b0a1e4b0a1b2c3d4e5f6").transactionId("234234jnjk2344").build();
+
+        Mockito.when(depositService.findPage("62d0b0a1e4b0a1b2c3d4e5f0", 1))
+                .thenReturn(Mono.just(new KeysetPage<>(Arrays.asList(deposit), deposit.getId())));
+
+        webTestClient.get()
+                .uri("/deposit/findAll?after={after}&limit={limit}", "62d0b0a1e4b0a1b2c3d4e5f0", 1)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(KeysetPage.NEXT_CURSOR_HEADER, deposit.getId())
+                .expectBodyList(Deposit.class)
+                .hasSize(1);
+
+        Mockito.verify(depositService,times(0)).findAll();
+    }
+
+    @Test
+    void findByTransactionId() {
+        Deposit deposit = Deposit.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+
+        Mockito.when(depositService.findByTransactionId("342873574h")).thenReturn(Flux.just(deposit));
+
+        webTestClient.get()
+                .uri("/deposit/findByTransactionId/{id}", "342873574h")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].transactionId").isEqualTo("342873574h");
+
+        Mockito.verify(depositService,times(1)).findByTransactionId("342873574h");
+    }
+
+    @Test
+    void findByTransactionIdInDateRange() {
+        Deposit deposit = Deposit.builder()
+                .id(ObjectId.get().toString())
+                .date(LocalDate.of(2022, 7, 20))
+                .transactionId("342873574h")
+                .build();
+
+        Mockito.when(depositService.findByTransactionId("342873574h", LocalDate.of(2022, 7, 1), LocalDate.of(2022, 7, 31)))
+                .thenReturn(Flux.just(deposit));
+
+        webTestClient.get()
+                .uri("/deposit/findByTransactionId/{id}?from=2022-07-01&to=2022-07-31", "342873574h")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].date").isEqualTo("2022-07-20");
+
+        Mockito.verify(depositService,times(0)).findByTransactionId("342873574h");
+    }
+
+    @Test
+    void findByTransactionIds() {
+        Deposit deposit = Deposit.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+        List<String> ids = Arrays.asList("342873574h", "6767668789fds9");
+
+        Mockito.when(depositService.findByTransactionIds(ids)).thenReturn(Flux.just(deposit));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/deposit/findByTransactionIds")
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Deposit.class).hasSize(1);
+
+        Mockito.verify(depositService,times(1)).findByTransactionIds(ids);
+    }
+
     @Test
      void FindById() {
 
@@ -2,8 +2,12 @@ package com.proyecto1.deposit.service.impl;
 
 
 import com.proyecto1.deposit.client.TransactionClient;
+import com.proyecto1.deposit.config.OutboxWriter;
+import com.proyecto1.deposit.dto.AccountSummary;
+import com.proyecto1.deposit.dto.BatchResult;
 import com.proyecto1.deposit.dto.DepositDTO;
 import com.proyecto1.deposit.entity.Deposit;
+import com.proyecto1.deposit.entity.OutboxEvent;
 import com.proyecto1.deposit.entity.Product;
 import com.proyecto1.deposit.entity.Transaction;
 import com.proyecto1.deposit.repository.DepositRepository;
@@ -18,9 +22,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -35,6 +43,9 @@ public class DepositServiceImplTest {
     @Mock
     private TransactionClient transactionClient;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private DepositServiceImpl depositServiceImpl;
 
@@ -72,8 +83,16 @@ public class DepositServiceImplTest {
         Deposit deposit = new Deposit();
         BeanUtils.copyProperties(depositMono,deposit);
 
-        Mockito.when(transactionClient.getTransactionWithDetails(transaction.getId())).thenReturn(Mono.just(transaction));
+        AccountSummary summary = AccountSummary.builder()
+                .id(transaction.getId())
+                .creditLimit(transaction.getCreditLimit())
+                .indProduct(product.getIndProduct())
+                .typeProduct(product.getTypeProduct())
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(transaction.getId())).thenReturn(Mono.just(summary));
         Mockito.when(depositRepository.save(Mockito.any())).thenReturn(Mono.just(deposit));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> depositServiceImpl.create(depositMono)
                 .subscribe(response -> {
@@ -97,6 +116,7 @@ public class DepositServiceImplTest {
 
         Mockito.when(depositRepository.findById(id)).thenReturn(Mono.just(deposit));
         Mockito.when(depositRepository.save(deposit)).thenReturn(Mono.just(deposit));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> depositServiceImpl.update(depositMono,id)
                 .subscribe(response -> {
@@ -122,6 +142,88 @@ public class DepositServiceImplTest {
                 }));
     }
 
+    @Test
+    void createBatchValidatesEachAccountOnce() {
+        Flux<DepositDTO> batch = Flux.just(
+                DepositDTO.builder().depositAmount(BigDecimal.valueOf(100)).transactionId("34242423234").build(),
+                DepositDTO.builder().depositAmount(BigDecimal.valueOf(50)).transactionId("99999999999").build(),
+                DepositDTO.builder().depositAmount(BigDecimal.valueOf(25)).transactionId("34242423234").build(),
+                DepositDTO.builder().depositAmount(BigDecimal.valueOf(75)).transactionId("34242423234").build());
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(2).build()));
+        Mockito.when(transactionClient.getAccountSummary("99999999999"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("99999999999").indProduct(1).build()));
+        Mockito.when(depositRepository.insert(Mockito.anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Deposit>>getArgument(0)));
+        List<OutboxEvent> events = new ArrayList<>();
+        Mockito.when(outboxWriter.writeAll(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            Function<List<Deposit>, List<OutboxEvent>> eventsOf = invocation.getArgument(1);
+            return invocation.<Mono<List<Deposit>>>getArgument(0).doOnNext(saved -> events.addAll(eventsOf.apply(saved)));
+        });
+
+        StepVerifier.create(depositServiceImpl.createBatch(batch))
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .assertNext(r -> {
+                    assertEquals(1, r.getIndex());
+                    assertEquals(BatchResult.REJECTED, r.getStatus());
+                })
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .verifyComplete();
+
+        Mockito.verify(transactionClient, Mockito.times(1)).getAccountSummary("34242423234");
+        Mockito.verify(depositRepository, Mockito.times(1)).insert(Mockito.anyList());
+        assertEquals(1, events.size());
+        assertEquals("34242423234", events.get(0).getTransactionId());
+        assertEquals("DEPOSIT", events.get(0).getType());
+        assertEquals(BigDecimal.valueOf(200), events.get(0).getAmount());
+        assertEquals(3, events.get(0).getCount());
+        Mockito.verify(transactionClient, Mockito.never()).applyMovement(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void findByTransactionIdInDateRange() {
+        LocalDate from = LocalDate.of(2022, 7, 1);
+        LocalDate to = LocalDate.of(2022, 7, 31);
+        Deposit deposit = Deposit.builder()
+                .id(ObjectId.get().toString())
+                .date(LocalDate.of(2022, 7, 20))
+                .transactionId("234234jnjk2344")
+                .build();
+
+        Mockito.when(depositRepository.findByTransactionIdAndDateRange("234234jnjk2344", from, to))
+                .thenReturn(Flux.just(deposit));
+
+        StepVerifier.create(depositServiceImpl.findByTransactionId("234234jnjk2344", from, to))
+                .expectNext(deposit)
+                .verifyComplete();
+
+        Mockito.verify(depositRepository, Mockito.never()).findByTransactionIdOrderByDateAsc(Mockito.any());
+    }
+
+    @Test
+    void findByTransactionIdFromDateOnly() {
+        LocalDate from = LocalDate.of(2022, 7, 1);
+
+        Mockito.when(depositRepository.findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc("234234jnjk2344", from))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(depositServiceImpl.findByTransactionId("234234jnjk2344", from, null))
+                .verifyComplete();
+
+        Mockito.verify(depositRepository).findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc("234234jnjk2344", from);
+    }
+
+    @Test
+    void findByTransactionIdRejectsInvertedRange() {
+        StepVerifier.create(depositServiceImpl.findByTransactionId("234234jnjk2344", LocalDate.of(2022, 8, 1), LocalDate.of(2022, 7, 1)))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        Mockito.verifyNoInteractions(depositRepository);
+    }
+
     @Test
      void FindById() {
 
@@ -155,6 +257,7 @@ public class DepositServiceImplTest {
 
         Mockito.when(depositRepository.findById("unhb2342342342")).thenReturn(Mono.just(depositMono));
         Mockito.when(depositRepository.delete(depositMono)).thenReturn(Mono.empty());
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> depositServiceImpl.delete(id)
                 .subscribe(response -> {
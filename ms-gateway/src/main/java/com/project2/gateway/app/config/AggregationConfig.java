@@ -0,0 +1,18 @@
+package com.project2.gateway.app.config;
+
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class AggregationConfig {
+
+    // Los hosts de AggregationProperties.legs son nombres de servicio en Eureka
+    @Bean
+    public WebClient aggregationWebClient(ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction) {
+        return WebClient.builder()
+                .filter(loadBalancerFunction)
+                .build();
+    }
+}
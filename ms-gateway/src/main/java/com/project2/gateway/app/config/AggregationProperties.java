@@ -0,0 +1,36 @@
+package com.project2.gateway.app.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.aggregation")
+public class AggregationProperties {
+
+    // Tiempo total de una vista agregada; se puede pedir otro con budgetMs hasta max-budget
+    private Duration defaultBudget = Duration.ofMillis(800);
+    private Duration maxBudget = Duration.ofSeconds(3);
+
+    // Seccion -> endpoint; {id} es el id de la cuenta, o el customerId/productId de la cuenta para customer y product
+    private Map<String, String> legs = defaultLegs();
+
+    private static Map<String, String> defaultLegs() {
+        Map<String, String> legs = new LinkedHashMap<>();
+        legs.put("transaction", "http://transaction-service/transaction/find/{id}");
+        legs.put("customer", "http://customer-service/customer/find/{id}");
+        legs.put("product", "http://product-service/product/find/{id}");
+        legs.put("deposits", "http://deposit-service/deposit/findByTransactionId/{id}");
+        legs.put("withdrawals", "http://withdrawal-service/withdrawal/findByTransactionId/{id}");
+        legs.put("payments", "http://payment-service/payment/findByTransactionId/{id}");
+        legs.put("purchases", "http://purchase-service/purchase/findByTransactionId/{id}");
+        legs.put("signatories", "http://signatory-service/signatory/findByTransactionId/{id}");
+        return legs;
+    }
+}
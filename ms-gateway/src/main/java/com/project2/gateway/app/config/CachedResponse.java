@@ -0,0 +1,38 @@
+package com.project2.gateway.app.config;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CachedResponse {
+
+    private String routeId;
+    private String path;
+    private HttpStatus status;
+    private HttpHeaders headers;
+    private byte[] body;
+    private String etag;
+    private Instant storedAt;
+    private Instant expiresAt;
+
+    public boolean isFresh(Instant now) {
+        return now.isBefore(expiresAt);
+    }
+
+    // Respuesta revalidada con un 304 del servicio: mismo cuerpo, nuevo vencimiento
+    public CachedResponse refresh(Duration ttl) {
+        Instant now = Instant.now();
+        return new CachedResponse(routeId, path, status, headers, body, etag, now, now.plus(ttl));
+    }
+
+    public long size() {
+        return body.length;
+    }
+}
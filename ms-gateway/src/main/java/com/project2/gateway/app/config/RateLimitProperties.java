@@ -0,0 +1,25 @@
+package com.project2.gateway.app.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    // Buckets por ruta antes de descartar los que estan llenos (equivalentes a uno nuevo)
+    private int maxKeys = 100_000;
+
+    // Header con la API key cuando el filtro usa key: api-key
+    private String apiKeyHeader = "X-API-Key";
+
+    // IPs o rangos CIDR de los balanceadores delante del gateway. X-Forwarded-For solo se usa si la
+    // conexion viene de uno de ellos; sin proxies configurados el cliente es siempre la direccion remota
+    private List<String> trustedProxies = new ArrayList<>();
+}
@@ -0,0 +1,41 @@
+package com.project2.gateway.app.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// Administracion de la cache de respuestas en /actuator/gatewaycache. Se publica solo por el puerto de
+// management, que no pasa por las rutas del gateway, para que un cliente no pueda vaciar la cache
+@Component
+@Endpoint(id = "gatewaycache")
+public class ResponseCacheEndpoint {
+
+    private static final Logger log = LogManager.getLogger(ResponseCacheEndpoint.class);
+
+    private final ResponseCacheStore responseCacheStore;
+
+    public ResponseCacheEndpoint(ResponseCacheStore responseCacheStore) {
+        this.responseCacheStore = responseCacheStore;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return responseCacheStore.stats();
+    }
+
+    // Sin parametros vacia toda la cache; route y path la acotan a una ruta y a un prefijo de path
+    @DeleteOperation
+    public Map<String, Object> purge(@Nullable String route, @Nullable String path) {
+        log.info("Cache purge - gateway route=" + route + " path=" + path);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("purged", responseCacheStore.purge(route, path));
+        return result;
+    }
+}
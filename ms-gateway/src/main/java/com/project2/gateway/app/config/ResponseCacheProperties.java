@@ -0,0 +1,27 @@
+package com.project2.gateway.app.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    // Memoria total de los cuerpos en cache; al superarla se descartan las entradas menos usadas
+    private long maxBytes = 64L * 1024 * 1024;
+
+    // Las respuestas mas grandes se entregan sin guardarse
+    private int maxEntryBytes = 1024 * 1024;
+
+    // Valores por defecto del filtro ResponseCache; cada ruta puede sobrescribirlos en sus args
+    private Duration defaultTtl = Duration.ofMinutes(5);
+    private List<String> defaultVaryHeaders = new ArrayList<>(Arrays.asList("Accept", "Accept-Language", "Authorization"));
+}
@@ -0,0 +1,81 @@
+package com.project2.gateway.app.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+// Cache LRU de respuestas acotada por bytes. El LinkedHashMap en orden de acceso deja primero
+// la entrada menos usada; las operaciones son cortas y se sincronizan sobre la instancia.
+@Component
+public class ResponseCacheStore {
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final ResponseCacheProperties properties;
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResponseCacheStore(ResponseCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public synchronized CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return cached;
+    }
+
+    public synchronized void put(String key, CachedResponse response) {
+        if (response.size() > properties.getMaxEntryBytes()) {
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            bytes -= previous.size();
+        }
+        bytes += response.size();
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (bytes > properties.getMaxBytes() && eldest.hasNext()) {
+            bytes -= eldest.next().size();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Sin ruta ni prefijo vacia toda la cache
+    public synchronized int purge(String routeId, String pathPrefix) {
+        int purged = 0;
+        Iterator<CachedResponse> it = entries.values().iterator();
+        while (it.hasNext()) {
+            CachedResponse cached = it.next();
+            if ((routeId == null || routeId.equals(cached.getRouteId()))
+                    && (pathPrefix == null || cached.getPath().startsWith(pathPrefix))) {
+                bytes -= cached.size();
+                it.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", properties.getMaxBytes());
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictionCount", evictions);
+        return stats;
+    }
+}
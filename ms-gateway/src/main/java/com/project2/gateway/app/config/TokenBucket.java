@@ -0,0 +1,57 @@
+package com.project2.gateway.app.config;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Token bucket sin bloqueos: el estado (tokens, instante) es inmutable y se reemplaza con compareAndSet.
+// La recarga se calcula al consumir, no hay hilos que repongan tokens.
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(double capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    // 0 si se tomaron los tokens; si no, los nanosegundos que faltan para tenerlos
+    public long tryConsume(int tokens, long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double available = availableAt(current, nowNanos);
+            if (available < tokens) {
+                return Math.max(1, (long) Math.ceil((tokens - available) / tokensPerNano));
+            }
+            State next = new State(available - tokens, Math.max(nowNanos, current.nanos));
+            if (state.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public double available(long nowNanos) {
+        return availableAt(state.get(), nowNanos);
+    }
+
+    // Un bucket lleno se comporta igual que uno nuevo, asi que se puede descartar sin perder estado
+    public boolean isFull(long nowNanos) {
+        return available(nowNanos) >= capacity;
+    }
+
+    private double availableAt(State current, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - current.nanos);
+        return Math.min(capacity, current.tokens + elapsed * tokensPerNano);
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long nanos;
+
+        private State(double tokens, long nanos) {
+            this.tokens = tokens;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.project2.gateway.app.controller;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.project2.gateway.app.service.AccountAggregator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/bff")
+public class AccountViewController {
+
+    private static final Logger log = LogManager.getLogger(AccountViewController.class);
+    @Autowired
+    AccountAggregator accountAggregator;
+
+    // fields: secciones separadas por coma (transaction, customer, product, deposits, withdrawals, payments,
+    // purchases, signatories); sin fields se devuelven todas. budgetMs acota la latencia total
+    @GetMapping(value = "/account/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAccount(@PathVariable String id,
+            @RequestParam(required = false) String fields, @RequestParam(required = false) Long budgetMs,
+            ServerHttpRequest request){
+        log.info("Service call getAccount - gateway");
+        Set<String> selected = fields == null ? new LinkedHashSet<>(AccountAggregator.FIELDS)
+                : Arrays.stream(fields.split(",")).map(String::trim).filter(f -> !f.isEmpty()).collect(Collectors.toSet());
+        if (!AccountAggregator.FIELDS.containsAll(selected)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown fields, expected " + AccountAggregator.FIELDS));
+        }
+        return accountAggregator.aggregate(id, selected, accountAggregator.budgetOf(budgetMs), request.getHeaders())
+                .map(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(statusOf(e)).<Flux<DataBuffer>>build()));
+    }
+
+    private static HttpStatus statusOf(Throwable e) {
+        if (e instanceof WebClientResponseException.NotFound) {
+            return HttpStatus.NOT_FOUND;
+        }
+        return e instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+    }
+}
@@ -0,0 +1,210 @@
+package com.project2.gateway.app.filter;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.project2.gateway.app.config.RateLimitProperties;
+import com.project2.gateway.app.config.TokenBucket;
+
+import io.netty.handler.ipfilter.IpFilterRuleType;
+import io.netty.handler.ipfilter.IpSubnetFilterRule;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+// Limite de peticiones en memoria, sin Redis: un token bucket por cliente, ruta o API key. Lo que excede
+// el limite se rechaza con 429 y lo que excede max-in-flight con 503, ambos con Retry-After.
+// Sin orden explicito corre despues de ResponseCache, asi los aciertos de cache no consumen tokens.
+@Component
+public class LocalRateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F.:]+");
+
+    private final RateLimitProperties properties;
+
+    public LocalRateLimitGatewayFilterFactory(RateLimitProperties properties) {
+        super(Config.class);
+        this.properties = properties;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        AtomicBoolean pruning = new AtomicBoolean();
+        AtomicLong nextPrune = new AtomicLong(System.nanoTime());
+        AtomicInteger inFlight = new AtomicInteger();
+        List<IpSubnetFilterRule> trustedProxies = trustedProxies();
+        // Un bucket sin uso se llena en burstCapacity / replenishRate segundos. Podar mas seguido no libera
+        // nada nuevo y con el mapa lleno de clientes activos cada peticion recorreria todas las claves
+        long pruneInterval = (long) Math.ceil(config.getBurstCapacity() / config.getReplenishRate() * 1_000_000_000d);
+        return (exchange, chain) -> {
+            long now = System.nanoTime();
+            TokenBucket bucket = bucketFor(buckets, keyOf(exchange, config, trustedProxies), config, now);
+            if (buckets.size() > properties.getMaxKeys() && now - nextPrune.get() >= 0 && pruning.compareAndSet(false, true)) {
+                try {
+                    buckets.values().removeIf(b -> b.isFull(now));
+                    nextPrune.set(now + pruneInterval);
+                } finally {
+                    pruning.set(false);
+                }
+            }
+            long waitNanos = bucket.tryConsume(config.getRequestedTokens(), now);
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.set(REMAINING_HEADER, String.valueOf((long) bucket.available(now)));
+            headers.set(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+            headers.set(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+            if (waitNanos > 0) {
+                return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(waitNanos));
+            }
+            if (config.getMaxInFlight() <= 0) {
+                return chain.filter(exchange);
+            }
+            if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, 1);
+            }
+            return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+        };
+    }
+
+    private static TokenBucket bucketFor(Map<String, TokenBucket> buckets, String key, Config config, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        TokenBucket created = new TokenBucket(config.getBurstCapacity(), config.getReplenishRate(), now);
+        bucket = buckets.putIfAbsent(key, created);
+        return bucket == null ? created : bucket;
+    }
+
+    private String keyOf(ServerWebExchange exchange, Config config, List<IpSubnetFilterRule> trustedProxies) {
+        if ("route".equals(config.getKey())) {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            return route == null ? "" : route.getId();
+        }
+        if ("api-key".equals(config.getKey())) {
+            String apiKey = exchange.getRequest().getHeaders().getFirst(properties.getApiKeyHeader());
+            // Sin API key se limita por cliente, con su propio espacio de claves
+            if (apiKey != null && !apiKey.isEmpty()) {
+                return "key:" + apiKey;
+            }
+        }
+        return "client:" + clientOf(exchange.getRequest(), trustedProxies);
+    }
+
+    // El primer valor de X-Forwarded-For lo escribe el cliente y se puede falsear. Se recorre desde la
+    // derecha, donde agregan los proxies propios, y el cliente es el primer salto que no es de confianza
+    private static String clientOf(ServerHttpRequest request, List<IpSubnetFilterRule> trustedProxies) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null) {
+            return "unknown";
+        }
+        String client = remote.getAddress() == null ? remote.getHostString() : remote.getAddress().getHostAddress();
+        if (!isTrusted(remote.getAddress(), trustedProxies)) {
+            return client;
+        }
+        List<String> forwarded = request.getHeaders().getOrDefault("X-Forwarded-For", Collections.emptyList());
+        List<String> hops = new ArrayList<>();
+        for (String header : forwarded) {
+            for (String hop : header.split(",")) {
+                if (!hop.trim().isEmpty()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            client = hops.get(i);
+            if (!isTrusted(ipLiteral(client), trustedProxies)) {
+                return client;
+            }
+        }
+        return client;
+    }
+
+    private static boolean isTrusted(InetAddress address, List<IpSubnetFilterRule> trustedProxies) {
+        if (address == null) {
+            return false;
+        }
+        InetSocketAddress socket = new InetSocketAddress(address, 0);
+        for (IpSubnetFilterRule rule : trustedProxies) {
+            if (rule.matches(socket)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Solo direcciones literales: un nombre en el header no debe disparar una consulta DNS
+    private static InetAddress ipLiteral(String hop) {
+        if (!IP_LITERAL.matcher(hop).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(hop);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private List<IpSubnetFilterRule> trustedProxies() {
+        List<IpSubnetFilterRule> rules = new ArrayList<>();
+        for (String proxy : properties.getTrustedProxies()) {
+            String[] parts = proxy.trim().split("/");
+            int prefix = parts.length > 1 ? Integer.parseInt(parts[1]) : (parts[0].contains(":") ? 128 : 32);
+            rules.add(new IpSubnetFilterRule(parts[0], prefix, IpFilterRuleType.ACCEPT));
+        }
+        return rules;
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return (waitNanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    @Data
+    public static class Config {
+        // client | route | api-key
+        private String key = "client";
+        // Tokens por segundo y tamano maximo de rafaga
+        private double replenishRate = 10;
+        private int burstCapacity = 20;
+        private int requestedTokens = 1;
+        // Peticiones simultaneas permitidas por la ruta; 0 sin limite
+        private int maxInFlight = 0;
+    }
+}
@@ -0,0 +1,262 @@
+package com.project2.gateway.app.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.project2.gateway.app.config.CachedResponse;
+import com.project2.gateway.app.config.ResponseCacheProperties;
+import com.project2.gateway.app.config.ResponseCacheStore;
+
+import lombok.Data;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Cache de respuestas GET por ruta. Un acierto vigente se responde sin llegar al servicio; una entrada vencida
+// se revalida con If-None-Match y un 304 del servicio la renueva. La clave incluye los headers de vary-headers.
+// Hoy ningun servicio emite ETag: el de la entrada es el md5 del cuerpo calculado aqui, el servicio ignora el
+// If-None-Match y una entrada vencida se vuelve a descargar completa. El 304 al cliente solo sale de aciertos vigentes.
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+    private static final List<String> UNCACHED_HEADERS = Arrays.asList(HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            "Keep-Alive", HttpHeaders.CONTENT_LENGTH, HttpHeaders.AGE, CACHE_HEADER);
+    private static final List<MediaType> STREAMING_TYPES = Arrays.asList(MediaType.TEXT_EVENT_STREAM,
+            MediaType.APPLICATION_NDJSON);
+
+    private final ResponseCacheStore store;
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store, ResponseCacheProperties properties) {
+        super(Config.class);
+        this.store = store;
+        this.properties = properties;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Collections.singletonList("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration ttl = config.getTtl() == null ? properties.getDefaultTtl() : config.getTtl();
+        List<String> varyHeaders = config.getVaryHeaders() == null ? properties.getDefaultVaryHeaders() : config.getVaryHeaders();
+        // Debe correr antes de NettyWriteResponseFilter para decorar la respuesta que escribe el servicio
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, ttl, varyHeaders),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Duration ttl, List<String> varyHeaders) {
+        ServerHttpRequest request = exchange.getRequest();
+        String routeId = routeIdOf(exchange);
+        if (request.getMethod() != HttpMethod.GET) {
+            // Una escritura exitosa por la ruta deja obsoletas sus lecturas en cache
+            return chain.filter(exchange).doOnSuccess(v -> {
+                HttpStatus status = exchange.getResponse().getStatusCode();
+                if (status != null && status.is2xxSuccessful()) {
+                    store.purge(routeId, null);
+                }
+            });
+        }
+        List<String> cacheControl = request.getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL);
+        if (containsDirective(cacheControl, "no-store")) {
+            return chain.filter(exchange);
+        }
+        String key = keyOf(routeId, request, varyHeaders);
+        CachedResponse cached = store.get(key);
+        if (cached != null && cached.isFresh(Instant.now()) && !containsDirective(cacheControl, "no-cache")) {
+            return writeCached(exchange.getResponse(), request, cached, "HIT");
+        }
+        ServerWebExchange forwarded = cached == null ? exchange
+                : exchange.mutate().request(r -> r.headers(h -> h.setIfNoneMatch(cached.getEtag()))).build();
+        CachingResponse response = new CachingResponse(forwarded.getResponse(), request, routeId, key, cached, ttl);
+        return chain.filter(forwarded.mutate().response(response).build());
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, ServerHttpRequest request, CachedResponse cached, String state) {
+        HttpHeaders headers = response.getHeaders();
+        headers.clear();
+        headers.putAll(cached.getHeaders());
+        headers.set(CACHE_HEADER, state);
+        headers.set(HttpHeaders.AGE, String.valueOf(Duration.between(cached.getStoredAt(), Instant.now()).getSeconds()));
+        if (matches(request, cached.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.getStatus());
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static String keyOf(String routeId, ServerHttpRequest request, List<String> varyHeaders) {
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(pathOf(request));
+        for (String header : varyHeaders) {
+            key.append('\n').append(header.toLowerCase()).append(':')
+                    .append(String.join(",", request.getHeaders().getOrEmpty(header)));
+        }
+        return key.toString();
+    }
+
+    private static String pathOf(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return query == null ? request.getURI().getRawPath() : request.getURI().getRawPath() + "?" + query;
+    }
+
+    private static String routeIdOf(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "" : route.getId();
+    }
+
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean containsDirective(List<String> values, String directive) {
+        for (String value : values) {
+            if (value.toLowerCase().contains(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean cacheable(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.getVary().contains("*")) {
+            return false;
+        }
+        List<String> cacheControl = headers.getOrEmpty(HttpHeaders.CACHE_CONTROL);
+        if (containsDirective(cacheControl, "no-store") || containsDirective(cacheControl, "private")) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        return contentType == null || STREAMING_TYPES.stream().noneMatch(contentType::isCompatibleWith);
+    }
+
+    // Copia el cuerpo mientras se entrega al cliente. En un MISS el ETag calculado queda en la entrada
+    // y lo reciben los siguientes aciertos; la respuesta en curso ya no puede llevarlo
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String routeId;
+        private final String key;
+        private final CachedResponse cached;
+        private final Duration ttl;
+
+        CachingResponse(ServerHttpResponse delegate, ServerHttpRequest request, String routeId, String key,
+                CachedResponse cached, Duration ttl) {
+            super(delegate);
+            this.request = request;
+            this.routeId = routeId;
+            this.key = key;
+            this.cached = cached;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatus status = getStatusCode();
+            if (status == HttpStatus.NOT_MODIFIED && cached != null) {
+                CachedResponse refreshed = cached.refresh(ttl);
+                store.put(key, refreshed);
+                return Flux.from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> writeCached(getDelegate(), request, refreshed, "REVALIDATED")));
+            }
+            if (status != HttpStatus.OK || !cacheable(getHeaders())) {
+                getHeaders().set(CACHE_HEADER, "BYPASS");
+                return super.writeWith(body);
+            }
+            HttpHeaders stored = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    stored.put(name, values);
+                }
+            });
+            getHeaders().set(CACHE_HEADER, "MISS");
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean tooLarge = new AtomicBoolean(getHeaders().getContentLength() > properties.getMaxEntryBytes());
+            Flux<DataBuffer> teed = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        if (tooLarge.get()) {
+                            return;
+                        }
+                        if (copy.size() + buffer.readableByteCount() > properties.getMaxEntryBytes()) {
+                            tooLarge.set(true);
+                            copy.reset();
+                            return;
+                        }
+                        ByteBuffer view = buffer.asByteBuffer();
+                        byte[] bytes = new byte[view.remaining()];
+                        view.get(bytes);
+                        copy.write(bytes, 0, bytes.length);
+                    })
+                    .doOnComplete(() -> {
+                        if (!tooLarge.get()) {
+                            store.put(key, entryOf(stored, copy.toByteArray()));
+                        }
+                    });
+            return super.writeWith(teed);
+        }
+
+        // NDJSON y eventos se entregan en vivo y nunca se guardan
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            getHeaders().set(CACHE_HEADER, "BYPASS");
+            return super.writeAndFlushWith(body);
+        }
+
+        private CachedResponse entryOf(HttpHeaders headers, byte[] body) {
+            String etag = headers.getETag();
+            if (etag == null) {
+                etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+                headers.setETag(etag);
+            }
+            Instant now = Instant.now();
+            return new CachedResponse(routeId, request.getURI().getRawPath(), HttpStatus.OK, headers, body, etag,
+                    now, now.plus(ttl));
+        }
+    }
+
+    @Data
+    public static class Config {
+        private Duration ttl;
+        private List<String> varyHeaders;
+    }
+}
@@ -0,0 +1,153 @@
+package com.project2.gateway.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project2.gateway.app.config.AggregationProperties;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Arma la vista de una cuenta en el gateway: con la cuenta se consultan en paralelo cliente, producto y
+// movimientos, y cada seccion se escribe en la respuesta apenas llega, sin deserializarla. Todo comparte
+// un presupuesto de latencia; las secciones que no llegan a tiempo se informan en "_partial".
+@Component
+public class AccountAggregator {
+
+    public static final List<String> FIELDS = Arrays.asList("transaction", "customer", "product", "deposits",
+            "withdrawals", "payments", "purchases", "signatories");
+    private static final List<String> FORWARDED_HEADERS = Arrays.asList(HttpHeaders.AUTHORIZATION,
+            HttpHeaders.ACCEPT_LANGUAGE);
+    private static final Logger log = LogManager.getLogger(AccountAggregator.class);
+
+    private final WebClient client;
+    private final AggregationProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public AccountAggregator(WebClient aggregationWebClient, AggregationProperties properties, ObjectMapper objectMapper) {
+        this.client = aggregationWebClient;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public Duration budgetOf(Long budgetMs) {
+        if (budgetMs == null || budgetMs <= 0) {
+            return properties.getDefaultBudget();
+        }
+        Duration requested = Duration.ofMillis(budgetMs);
+        return requested.compareTo(properties.getMaxBudget()) > 0 ? properties.getMaxBudget() : requested;
+    }
+
+    // Vacio si la cuenta no existe. La cuenta es obligatoria: si no llega dentro del presupuesto falla todo
+    public Mono<Flux<DataBuffer>> aggregate(String id, Set<String> fields, Duration budget, HttpHeaders headers) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        return fetch("transaction", id, deadline, headers)
+                .map(transaction -> stream(id, transaction, fields, deadline, headers));
+    }
+
+    private Flux<DataBuffer> stream(String id, String transaction, Set<String> fields, long deadline, HttpHeaders headers) {
+        JsonNode account = readTree(transaction);
+        Map<String, String> partial = new ConcurrentHashMap<>();
+        Flux<String> sections = Flux.merge(Flux.fromIterable(FIELDS)
+                .filter(fields::contains)
+                .map(name -> section(name, id, account, transaction, deadline, headers, partial)));
+        return Flux.concat(Mono.just("{\"id\":" + quote(id)), sections, Mono.fromSupplier(() -> closing(partial)))
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mono<String> section(String name, String id, JsonNode account, String transaction, long deadline,
+            HttpHeaders headers, Map<String, String> partial) {
+        Mono<String> json;
+        if ("transaction".equals(name)) {
+            json = Mono.just(transaction);
+        } else if ("customer".equals(name) || "product".equals(name)) {
+            String key = account.path(name + "Id").asText(null);
+            json = key == null ? Mono.empty() : fetch(name, key, deadline, headers);
+        } else {
+            json = fetch(name, id, deadline, headers);
+        }
+        return json.defaultIfEmpty("null")
+                .onErrorResume(e -> {
+                    partial.put(name, reasonOf(e));
+                    return Mono.just("null");
+                })
+                .map(body -> "," + quote(name) + ":" + body);
+    }
+
+    private Mono<String> fetch(String name, String id, long deadline, HttpHeaders headers) {
+        return Mono.defer(() -> {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Mono.error(new TimeoutException("Latency budget exhausted before " + name));
+            }
+            return client.get()
+                    .uri(properties.getLegs().get(name), id)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .headers(h -> FORWARDED_HEADERS.forEach(header -> {
+                        if (headers.containsKey(header)) {
+                            h.put(header, headers.get(header));
+                        }
+                    }))
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(Duration.ofNanos(remaining))
+                    .doOnError(e -> log.warn("Aggregation leg failed - " + name + ": " + e.getMessage()));
+        });
+    }
+
+    private String closing(Map<String, String> partial) {
+        if (partial.isEmpty()) {
+            return "}";
+        }
+        try {
+            return ",\"_partial\":" + objectMapper.writeValueAsString(partial) + "}";
+        } catch (JsonProcessingException e) {
+            return "}";
+        }
+    }
+
+    private static String reasonOf(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientResponseException) {
+            return "status " + ((WebClientResponseException) e).getRawStatusCode();
+        }
+        return "unavailable";
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return objectMapper.createObjectNode();
+        }
+    }
+
+    private String quote(String value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
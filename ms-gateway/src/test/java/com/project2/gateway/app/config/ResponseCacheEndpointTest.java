@@ -0,0 +1,71 @@
+package com.project2.gateway.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "management.endpoints.web.exposure.include=gatewaycache",
+        "eureka.client.enabled=false" })
+public class ResponseCacheEndpointTest {
+
+    @LocalServerPort
+    int serverPort;
+
+    @LocalManagementPort
+    int managementPort;
+
+    @Autowired
+    ResponseCacheStore responseCacheStore;
+
+    @Test
+    void purgeIsNotServedOnPublicPort() {
+        responseCacheStore.put("a", entry("/product/find/a"));
+
+        client(serverPort).delete().uri("/actuator/gatewaycache").exchange().expectStatus().isNotFound();
+        client(serverPort).delete().uri("/gateway/cache").exchange().expectStatus().isNotFound();
+
+        assertNotNull(responseCacheStore.get("a"));
+    }
+
+    @Test
+    void purgeByRouteOnManagementPort() {
+        responseCacheStore.purge(null, null);
+        responseCacheStore.put("a", entry("/product/find/a"));
+        responseCacheStore.put("b", entry("/product/findAll"));
+
+        client(managementPort).delete()
+                .uri(uri -> uri.path("/actuator/gatewaycache").queryParam("route", "product-service")
+                        .queryParam("path", "/product/find/").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.purged").isEqualTo(1);
+
+        client(managementPort).get().uri("/actuator/gatewaycache")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.entries").isEqualTo(1);
+        assertEquals(1, responseCacheStore.stats().get("entries"));
+    }
+
+    private static WebTestClient client(int port) {
+        return WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    private static CachedResponse entry(String path) {
+        Instant now = Instant.now();
+        return new CachedResponse("product-service", path, HttpStatus.OK, new HttpHeaders(), new byte[1], "\"e\"",
+                now, now.plusSeconds(60));
+    }
+}
@@ -0,0 +1,49 @@
+package com.project2.gateway.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+public class ResponseCacheStoreTest {
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverBudget() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxBytes(20);
+        ResponseCacheStore store = new ResponseCacheStore(properties);
+
+        store.put("a", entry("/product/a", 10));
+        store.put("b", entry("/product/b", 10));
+        store.get("a");
+        store.put("c", entry("/product/c", 10));
+
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertNotNull(store.get("c"));
+        assertEquals(1L, store.stats().get("evictionCount"));
+        assertEquals(20L, store.stats().get("bytes"));
+    }
+
+    @Test
+    void purgeByRouteAndPrefix() {
+        ResponseCacheStore store = new ResponseCacheStore(new ResponseCacheProperties());
+        store.put("a", entry("/product/find/a", 1));
+        store.put("b", entry("/product/findAll", 1));
+
+        assertEquals(1, store.purge("product-service", "/product/find/"));
+        assertNull(store.get("a"));
+        assertNotNull(store.get("b"));
+    }
+
+    private static CachedResponse entry(String path, int size) {
+        Instant now = Instant.now();
+        return new CachedResponse("product-service", path, HttpStatus.OK, new HttpHeaders(), new byte[size], "\"e\"",
+                now, now.plusSeconds(60));
+    }
+}
@@ -0,0 +1,41 @@
+package com.project2.gateway.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstThenWaitForRefill() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(0, bucket.tryConsume(1, 0));
+        assertEquals(0, bucket.tryConsume(1, 0));
+        assertEquals(0, bucket.tryConsume(1, 0));
+        assertEquals(SECOND, bucket.tryConsume(1, 0));
+        assertEquals(0, bucket.tryConsume(1, SECOND));
+        assertTrue(bucket.isFull(10 * SECOND));
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedCapacity() {
+        TokenBucket bucket = new TokenBucket(100, 1, 0);
+        AtomicInteger granted = new AtomicInteger();
+
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            if (bucket.tryConsume(1, 0) == 0) {
+                granted.incrementAndGet();
+            }
+        });
+
+        assertEquals(100, granted.get());
+    }
+}
@@ -0,0 +1,110 @@
+package com.project2.gateway.app.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.project2.gateway.app.config.RateLimitProperties;
+
+import reactor.core.publisher.Mono;
+
+public class LocalRateLimitGatewayFilterFactoryTest {
+
+    private final LocalRateLimitGatewayFilterFactory factory = new LocalRateLimitGatewayFilterFactory(new RateLimitProperties());
+    private final GatewayFilterChain service = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return exchange.getResponse().setComplete();
+    };
+
+    @Test
+    void requestsOverBurstAreRejectedWithRetryAfter() {
+        GatewayFilter filter = factory.apply(config("client", 2));
+
+        MockServerWebExchange first = call(filter, "10.0.0.1");
+        MockServerWebExchange second = call(filter, "10.0.0.1");
+        MockServerWebExchange third = call(filter, "10.0.0.1");
+
+        assertEquals(HttpStatus.OK, first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, third.getResponse().getStatusCode());
+        assertEquals("1", third.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNull(first.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        GatewayFilter filter = factory.apply(config("client", 1));
+
+        assertEquals(HttpStatus.OK, call(filter, "10.0.0.1").getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, call(filter, "10.0.0.2").getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, call(filter, "10.0.0.1").getResponse().getStatusCode());
+    }
+
+    @Test
+    void forwardedForIsIgnoredFromUntrustedConnections() {
+        GatewayFilter filter = factory.apply(config("client", 1));
+
+        assertEquals(HttpStatus.OK, call(filter, "203.0.113.7", "10.0.0.1").getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, call(filter, "203.0.113.7", "10.0.0.2").getResponse().getStatusCode());
+    }
+
+    @Test
+    void trustedProxyForwardsRightMostUntrustedHop() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setTrustedProxies(Arrays.asList("10.1.0.0/16", "192.168.0.5"));
+        GatewayFilter filter = new LocalRateLimitGatewayFilterFactory(properties).apply(config("client", 1));
+
+        // El cliente agrega un valor falso a la izquierda; el balanceador agrega la IP real a la derecha
+        assertEquals(HttpStatus.OK, call(filter, "10.1.2.3", "1.1.1.1, 198.51.100.4, 192.168.0.5").getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, call(filter, "10.1.9.9", "2.2.2.2, 198.51.100.4").getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, call(filter, "10.1.2.3", "198.51.100.5").getResponse().getStatusCode());
+    }
+
+    @Test
+    void requestsOverMaxInFlightAreShed() {
+        LocalRateLimitGatewayFilterFactory.Config config = config("route", 10);
+        config.setMaxInFlight(1);
+        GatewayFilter filter = factory.apply(config);
+        MockServerWebExchange pending = MockServerWebExchange.from(MockServerHttpRequest.get("/transaction/findAllWithDetail"));
+        MockServerWebExchange shed = MockServerWebExchange.from(MockServerHttpRequest.get("/transaction/findAllWithDetail"));
+
+        filter.filter(pending, exchange -> Mono.never()).subscribe();
+        filter.filter(shed, service).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("1", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private MockServerWebExchange call(GatewayFilter filter, String client) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/transaction/findAll")
+                .remoteAddress(new InetSocketAddress(client, 40000)));
+        filter.filter(exchange, service).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange call(GatewayFilter filter, String remote, String forwardedFor) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/transaction/findAll")
+                .remoteAddress(new InetSocketAddress(remote, 40000))
+                .header("X-Forwarded-For", forwardedFor));
+        filter.filter(exchange, service).block();
+        return exchange;
+    }
+
+    private static LocalRateLimitGatewayFilterFactory.Config config(String key, int burst) {
+        LocalRateLimitGatewayFilterFactory.Config config = new LocalRateLimitGatewayFilterFactory.Config();
+        config.setKey(key);
+        config.setReplenishRate(1);
+        config.setBurstCapacity(burst);
+        return config;
+    }
+}
@@ -0,0 +1,98 @@
+package com.project2.gateway.app.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.project2.gateway.app.config.ResponseCacheProperties;
+import com.project2.gateway.app.config.ResponseCacheStore;
+
+import reactor.core.publisher.Mono;
+
+public class ResponseCacheGatewayFilterFactoryTest {
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private final ResponseCacheStore store = new ResponseCacheStore(properties);
+    private final GatewayFilter filter = new ResponseCacheGatewayFilterFactory(store, properties)
+            .apply(new ResponseCacheGatewayFilterFactory.Config());
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final GatewayFilterChain service = exchange -> {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("{\"call\":" + calls.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    @Test
+    void repeatedGetIsServedFromCache() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/product/find/p1"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/product/find/p1"));
+
+        filter.filter(first, service).block();
+        filter.filter(second, service).block();
+
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("{\"call\":1}", second.getResponse().getBodyAsString().block());
+        assertNotNull(second.getResponse().getHeaders().getETag());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void matchingEtagReturnsNotModified() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/product/find/p1"));
+        filter.filter(first, service).block();
+        MockServerWebExchange warm = exchange(MockServerHttpRequest.get("/product/find/p1"));
+        filter.filter(warm, service).block();
+        String etag = warm.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/product/find/p1").ifNoneMatch(etag));
+        filter.filter(conditional, service).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void varyHeadersSeparateEntries() {
+        filter.filter(exchange(MockServerHttpRequest.get("/product/find/p1").header(HttpHeaders.ACCEPT_LANGUAGE, "es")), service).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/product/find/p1").header(HttpHeaders.ACCEPT_LANGUAGE, "en")), service).block();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void successfulWriteFlushesRoute() {
+        filter.filter(exchange(MockServerHttpRequest.get("/product/find/p1")), service).block();
+        filter.filter(exchange(MockServerHttpRequest.put("/product/update/p1")), service).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/product/find/p1")), service).block();
+
+        assertEquals(3, calls.get());
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("product-service")
+                .uri("lb://product-service")
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+}
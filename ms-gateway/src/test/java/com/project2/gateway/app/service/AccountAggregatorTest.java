@@ -0,0 +1,90 @@
+package com.project2.gateway.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project2.gateway.app.config.AggregationProperties;
+
+import reactor.core.publisher.Mono;
+
+public class AccountAggregatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // Responde como los servicios; los depositos tardan mas que el presupuesto de la prueba
+    private final WebClient client = WebClient.builder().exchangeFunction(request -> {
+        calls.incrementAndGet();
+        String path = request.url().getPath();
+        Mono<ClientResponse> response;
+        if (path.startsWith("/transaction/find/")) {
+            response = json("{\"id\":\"t1\",\"customerId\":\"c1\",\"productId\":\"p1\"}");
+        } else if (path.startsWith("/customer/find/c1")) {
+            response = json("{\"id\":\"c1\",\"name\":\"Ana\"}");
+        } else if (path.startsWith("/deposit/")) {
+            response = json("[{\"id\":\"d1\"}]").delayElement(Duration.ofSeconds(10));
+        } else {
+            response = json("[]");
+        }
+        return response;
+    }).build();
+
+    private final AccountAggregator aggregator = new AccountAggregator(client, new AggregationProperties(), objectMapper);
+
+    @Test
+    void selectedFieldsAreMergedInOneDocument() throws Exception {
+        JsonNode view = aggregate(new HashSet<>(Arrays.asList("customer", "payments")), Duration.ofSeconds(1));
+
+        assertEquals("t1", view.get("id").asText());
+        assertEquals("Ana", view.get("customer").get("name").asText());
+        assertTrue(view.get("payments").isArray());
+        assertFalse(view.has("transaction"));
+        assertFalse(view.has("product"));
+        assertFalse(view.has("_partial"));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void slowLegIsReportedAsPartial() throws Exception {
+        // Presupuesto holgado para los tramos rapidos; los depositos igual lo superan
+        JsonNode view = aggregate(new HashSet<>(Arrays.asList("transaction", "deposits", "withdrawals")), Duration.ofSeconds(3));
+
+        assertEquals("c1", view.get("transaction").get("customerId").asText());
+        assertTrue(view.get("deposits").isNull());
+        assertTrue(view.get("withdrawals").isArray());
+        assertEquals("timeout", view.get("_partial").get("deposits").asText());
+    }
+
+    private JsonNode aggregate(Set<String> fields, Duration budget) throws Exception {
+        String body = aggregator.aggregate("t1", fields, budget, new HttpHeaders())
+                .flatMap(buffers -> DataBufferUtils.join(buffers))
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .block();
+        return objectMapper.readTree(body);
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
@@ -1,21 +1,45 @@
 package com.proyecto1.payment.client;
 
-import com.proyecto1.payment.entity.Transaction;
+import com.proyecto1.payment.config.SingleFlight;
+import com.proyecto1.payment.config.WebClientFactory;
+import com.proyecto1.payment.dto.AccountSummary;
+import com.proyecto1.payment.dto.MovementDTO;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 @Component
 public class TransactionClient {
-    private WebClient client = WebClient.create("http://transaction-service:9004/transaction");
+    private final WebClient client;
+    private final SingleFlight<AccountSummary> singleFlight = new SingleFlight<>();
 
-    public Mono<Transaction> getTransactionWithDetails(String id){
-        return client.get()
+    public TransactionClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("transaction-service", "http://transaction-service/transaction");
+    }
+
+    public Mono<AccountSummary> getAccountSummary(String id){
+        return singleFlight.execute(id, () -> client.get()
                 .uri(uriBuilder -> uriBuilder
-                        .path("/findByIdWithCustomer/{id}")
+                        .path("/findSummary/{id}")
                         .build(id)
                 )
                 .retrieve()
-                .bodyToMono(Transaction.class);
+                .bodyToMono(AccountSummary.class));
     };
+
+    public Mono<Void> applyMovement(String id, MovementDTO movement){
+        return client.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/applyMovement/{id}")
+                        .build(id)
+                )
+                .bodyValue(movement)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    public SingleFlight<AccountSummary> getSingleFlight() {
+        return singleFlight;
+    }
 }
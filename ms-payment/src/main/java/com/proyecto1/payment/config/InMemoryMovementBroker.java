@@ -0,0 +1,23 @@
+package com.proyecto1.payment.config;
+
+import com.proyecto1.payment.entity.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+// Broker en el mismo proceso, para desarrollo local y pruebas del relay sin ms-transaction ni Kafka
+public class InMemoryMovementBroker implements MovementBroker {
+
+    private final Sinks.Many<OutboxEvent> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+    @Override
+    public Mono<Void> publish(OutboxEvent event) {
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        return result.isSuccess() ? Mono.empty() : Mono.error(new IllegalStateException("Event not accepted: " + result));
+    }
+
+    public Flux<OutboxEvent> events() {
+        return sink.asFlux();
+    }
+}
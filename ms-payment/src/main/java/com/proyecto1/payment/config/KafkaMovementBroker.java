@@ -0,0 +1,51 @@
+package com.proyecto1.payment.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto1.payment.entity.OutboxEvent;
+
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+
+// Publica en el topic con el transactionId como clave, asi los eventos de una cuenta quedan en la misma particion
+public class KafkaMovementBroker implements MovementBroker {
+
+    private final KafkaSender<String, String> sender;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+
+    public KafkaMovementBroker(OutboxProperties properties, ObjectMapper objectMapper) {
+        Map<String, Object> config = new HashMap<>(properties.getKafka());
+        config.putIfAbsent(ProducerConfig.ACKS_CONFIG, "all");
+        config.putIfAbsent(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        this.sender = KafkaSender.create(SenderOptions.create(config));
+        this.objectMapper = objectMapper;
+        this.topic = properties.getTopic();
+    }
+
+    @Override
+    public Mono<Void> publish(OutboxEvent event) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(event))
+                .flatMap(json -> sender.send(Mono.just(SenderRecord.create(
+                                new ProducerRecord<>(topic, event.getTransactionId(), json), event.getId())))
+                        .next())
+                .flatMap(result -> result.exception() == null ? Mono.<Void>empty() : Mono.error(result.exception()));
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.close();
+    }
+}
@@ -0,0 +1,34 @@
+package com.proyecto1.payment.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    // http: entrega a /applyMovement de ms-transaction; kafka: publica en topic; memory: solo en el proceso (pruebas)
+    private String broker = "http";
+
+    // Movimiento y evento en una misma transaccion de Mongo; requiere que Mongo corra como replica set.
+    // Sin replica set la escritura falla; desactivarlo escribe el evento despues del movimiento, sin atomicidad
+    private boolean transactional = true;
+
+    private boolean relayEnabled = true;
+    private Duration pollInterval = Duration.ofMillis(500);
+    private int batchSize = 100;
+
+    // Intentos ante un rechazo definitivo de ms-transaction (4xx) antes de apartar el evento
+    private int maxAttempts = 5;
+
+    // Solo para broker kafka; las propiedades se pasan tal cual al productor (bootstrap.servers, ...)
+    private String topic = "account-movements";
+    private Map<String, String> kafka = new HashMap<>();
+}
@@ -0,0 +1,23 @@
+package com.proyecto1.payment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+
+    // Tamano de pagina cuando se pide after sin limit, y tope para cualquier limit recibido
+    private int defaultLimit = 100;
+    private int maxLimit = 1000;
+
+    public int limitFor(Integer limit) {
+        if (limit == null || limit < 1) {
+            return defaultLimit;
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
@@ -0,0 +1,72 @@
+package com.proyecto1.payment.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "webclient")
+public class WebClientProperties {
+
+    // Valores por defecto para todos los servicios destino
+    private Pool pool = new Pool();
+
+    // Ajustes por servicio destino (customer-service, product-service, ...); lo que no se define
+    // para el servicio se toma de webclient.pool
+    private Map<String, PoolOverride> services = new HashMap<>();
+
+    public Pool poolFor(String service) {
+        PoolOverride override = services.get(service);
+        if (override == null) {
+            return pool;
+        }
+        Pool merged = new Pool();
+        merged.setMaxConnections(or(override.getMaxConnections(), pool.getMaxConnections()));
+        merged.setPendingAcquireMaxCount(or(override.getPendingAcquireMaxCount(), pool.getPendingAcquireMaxCount()));
+        merged.setPendingAcquireTimeout(or(override.getPendingAcquireTimeout(), pool.getPendingAcquireTimeout()));
+        merged.setMaxIdleTime(or(override.getMaxIdleTime(), pool.getMaxIdleTime()));
+        merged.setMaxLifeTime(or(override.getMaxLifeTime(), pool.getMaxLifeTime()));
+        merged.setEvictionInterval(or(override.getEvictionInterval(), pool.getEvictionInterval()));
+        merged.setKeepAlive(or(override.getKeepAlive(), pool.isKeepAlive()));
+        merged.setCompression(or(override.getCompression(), pool.isCompression()));
+        merged.setH2c(or(override.getH2c(), pool.isH2c()));
+        return merged;
+    }
+
+    private static <T> T or(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 500;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private boolean keepAlive = true;
+        private boolean compression = true;
+        private boolean h2c = false;
+    }
+
+    // Mismos campos que Pool, nulos cuando el servicio no los define
+    @Data
+    public static class PoolOverride {
+        private Integer maxConnections;
+        private Integer pendingAcquireMaxCount;
+        private Duration pendingAcquireTimeout;
+        private Duration maxIdleTime;
+        private Duration maxLifeTime;
+        private Duration evictionInterval;
+        private Boolean keepAlive;
+        private Boolean compression;
+        private Boolean h2c;
+    }
+}
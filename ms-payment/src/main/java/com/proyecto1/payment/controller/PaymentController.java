@@ -1,12 +1,21 @@
 package com.proyecto1.payment.controller;
 
+import com.proyecto1.payment.dto.BatchResult;
+import com.proyecto1.payment.dto.KeysetPage;
 import com.proyecto1.payment.entity.Payment;
 import com.proyecto1.payment.service.PaymentService;
 
 import com.proyecto1.payment.service.impl.PaymentServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,10 +28,15 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
-    @GetMapping("/findAll")
-    public Flux<Payment> getPayments(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Payment>>> getPayments(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call FindAll - payment");
-        return paymentService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(paymentService.findAll()));
+        }
+        return paymentService.findPage(after, limit).map(KeysetPage::toResponse);
     }
 
     @GetMapping("/find/{id}")
@@ -31,12 +45,35 @@ public class PaymentController {
         return paymentService.findById(id);
     }
 
+    @GetMapping(value = "/findByTransactionId/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Payment> getPaymentsByTransactionId(@PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        log.info("Service call FindByTransactionId - payment");
+        if (from == null && to == null) {
+            return paymentService.findByTransactionId(id);
+        }
+        return paymentService.findByTransactionId(id, from, to);
+    }
+
+    @GetMapping(value = "/findByTransactionIds", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Payment> getPaymentsByTransactionIds(@RequestParam List<String> ids){
+        log.info("Service call FindByTransactionIds - payment");
+        return paymentService.findByTransactionIds(ids);
+    }
+
     @PostMapping("/create")
     public Mono<Payment> createPayment(@RequestBody Payment c){
         log.info("Service call create - payment");
         return paymentService.create(c);
     }
 
+    @PostMapping(value = "/createBatch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchResult> createPaymentBatch(@RequestBody Flux<Payment> payments){
+        log.info("Service call createBatch - payment");
+        return paymentService.createBatch(payments);
+    }
+
     @PutMapping("/update/{id}")
     public Mono<Payment> updatePayment(@RequestBody Payment c, @PathVariable String id){
         log.info("Service call update - payment");
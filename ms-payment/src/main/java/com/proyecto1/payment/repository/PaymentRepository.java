@@ -1,10 +1,30 @@
 package com.proyecto1.payment.repository;
 
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 import com.proyecto1.payment.entity.Payment;
 
+import reactor.core.publisher.Flux;
+
 @Repository
-public interface PaymentRepository extends ReactiveCrudRepository<Payment, String> {
+public interface PaymentRepository extends ReactiveMongoRepository<Payment, String> {
+
+    Flux<Payment> findByTransactionId(String transactionId);
+
+    Flux<Payment> findByTransactionIdOrderByDateAsc(String transactionId);
+
+    // Rango inclusivo en ambos extremos; el Between derivado excluye los limites
+    @Query(value = "{ 'transactionId': ?0, 'date': { $gte: ?1, $lte: ?2 } }", sort = "{ 'date': 1 }")
+    Flux<Payment> findByTransactionIdAndDateRange(String transactionId, LocalDate from, LocalDate to);
+
+    Flux<Payment> findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(String transactionId, LocalDate from);
+
+    Flux<Payment> findByTransactionIdAndDateLessThanEqualOrderByDateAsc(String transactionId, LocalDate to);
+
+    Flux<Payment> findByTransactionIdIn(Collection<String> transactionIds);
 }
@@ -1,7 +1,12 @@
 package com.proyecto1.payment.service;
 
+import com.proyecto1.payment.dto.BatchResult;
+import com.proyecto1.payment.dto.KeysetPage;
 import com.proyecto1.payment.entity.Payment;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,10 +14,20 @@ public interface PaymentService {
 
     Flux<Payment> findAll();
 
+    Mono<KeysetPage<Payment>> findPage(String after, Integer limit);
+
     Mono<Payment> create(Payment c);
 
+    Flux<BatchResult> createBatch(Flux<Payment> payments);
+
     Mono<Payment> findById(String id);
 
+    Flux<Payment> findByTransactionId(String id);
+
+    Flux<Payment> findByTransactionId(String id, LocalDate from, LocalDate to);
+
+    Flux<Payment> findByTransactionIds(List<String> ids);
+
     Mono<Payment> update(Payment c, String id);
 
     Mono<Payment> delete(String id);
@@ -1,24 +1,51 @@
 package com.proyecto1.payment.service.impl;
 
 import com.proyecto1.payment.client.TransactionClient;
+import com.proyecto1.payment.config.KeysetPager;
+import com.proyecto1.payment.config.OutboxWriter;
+import com.proyecto1.payment.dto.BatchResult;
+import com.proyecto1.payment.dto.KeysetPage;
+import com.proyecto1.payment.entity.OutboxEvent;
 import com.proyecto1.payment.entity.Payment;
 import com.proyecto1.payment.repository.PaymentRepository;
 import com.proyecto1.payment.service.PaymentService;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
     private static final Logger log = LogManager.getLogger(PaymentServiceImpl.class);
+    // Registros por insertMany y validaciones de cuenta concurrentes en createBatch
+    private static final int BATCH_SIZE = 500;
+    private static final int VALIDATION_CONCURRENCY = 16;
     @Autowired
     PaymentRepository paymentRepository;
 
+    @Autowired
+    KeysetPager keysetPager;
+
+    @Autowired
+    OutboxWriter outboxWriter;
+
     @Autowired
     TransactionClient transactionClient;
 
@@ -28,15 +55,22 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Payment>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - payment");
+        return keysetPager.page(Payment.class, after, limit, Payment::getId);
+    }
+
     @Override
     public Mono<Payment> create(Payment c) {
         log.info("Method call create - payment");
-        return transactionClient.getTransactionWithDetails(c.getTransactionId())
-                .filter( x -> x.getProduct().getIndProduct() == 1)
+        return transactionClient.getAccountSummary(c.getTransactionId())
+                .filter( x -> x.getIndProduct() == 1)
                 .hasElement()
                 .flatMap( y -> {
                     if(y){
-                        return paymentRepository.save(c);
+                        return outboxWriter.write(paymentRepository.save(c),
+                                saved -> movement(saved.getTransactionId(), saved.getPaymentAmount(), 1));
                     }else{
                         return Mono.error(new RuntimeException("The payment you want to make is not a credit product"));
                     }
@@ -44,27 +78,158 @@ public class PaymentServiceImpl implements PaymentService {
 
     }
 
+
+    @Override
+    public Flux<BatchResult> createBatch(Flux<Payment> payments) {
+        log.info("Method call createBatch - payment");
+        return payments.index()
+                .buffer(BATCH_SIZE)
+                .concatMap(this::createChunk);
+    }
+
     @Override
     public Mono<Payment> findById(String id) {
         log.info("Method call findById - payment");
         return paymentRepository.findById(id);
     }
 
+    @Override
+    public Flux<Payment> findByTransactionId(String id) {
+        return findByTransactionId(id, null, null);
+    }
+
+    @Override
+    public Flux<Payment> findByTransactionId(String id, LocalDate from, LocalDate to) {
+        log.info("Method call findByTransactionId - payment");
+        if (from == null && to == null) {
+            return paymentRepository.findByTransactionIdOrderByDateAsc(id);
+        }
+        if (from != null && to != null) {
+            if (from.isAfter(to)) {
+                return Flux.error(new RuntimeException("The start date must not be after the end date"));
+            }
+            return paymentRepository.findByTransactionIdAndDateRange(id, from, to);
+        }
+        // Un extremo nulo deja el rango abierto; todas las variantes recorren el indice (transactionId, date)
+        if (from != null) {
+            return paymentRepository.findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(id, from);
+        }
+        return paymentRepository.findByTransactionIdAndDateLessThanEqualOrderByDateAsc(id, to);
+    }
+
+    @Override
+    public Flux<Payment> findByTransactionIds(List<String> ids) {
+        log.info("Method call findByTransactionIds - payment");
+        return paymentRepository.findByTransactionIdIn(ids);
+    }
+
     @Override
     public Mono<Payment> update(Payment c, String id) {
         log.info("Method call update - payment");
         return paymentRepository.findById(id)
-                .map( x -> {
+                .flatMap( x -> {
+                    BigDecimal delta = amountOf(c.getPaymentAmount()).subtract(amountOf(x.getPaymentAmount()));
                     x.setDate(c.getDate());
                     x.setPaymentAmount(c.getPaymentAmount());
                     x.setDescription(c.getDescription());
-                    return x;
-                }).flatMap(paymentRepository::save);
+                    return outboxWriter.write(paymentRepository.save(x),
+                            saved -> movement(saved.getTransactionId(), delta, 0));
+                });
     }
 
     @Override
     public Mono<Payment> delete(String id) {
         log.info("Method call delete - payment");
-        return paymentRepository.findById(id).flatMap( x -> paymentRepository.delete(x).then(Mono.just(new Payment())));
+        return paymentRepository.findById(id).flatMap( x -> outboxWriter.write(paymentRepository.delete(x).thenReturn(x),
+                        deleted -> movement(x.getTransactionId(), amountOf(x.getPaymentAmount()).negate(), -1))
+                .then(Mono.just(new Payment())));
+    }
+
+    // Cada cuenta se valida una sola vez por bloque, los registros validos se insertan en un solo comando
+    // y el saldo se actualiza con un evento por cuenta en lugar de uno por registro
+    private Flux<BatchResult> createChunk(List<Tuple2<Long, Payment>> chunk) {
+        return validateAccounts(chunk)
+                .flatMapMany(rejections -> {
+                    List<Tuple2<Long, Payment>> accepted = new ArrayList<>();
+                    List<BatchResult> results = new ArrayList<>();
+                    for (Tuple2<Long, Payment> t : chunk) {
+                        String rejection = rejections.getOrDefault(t.getT2().getTransactionId(), "The payment you want to make is not a credit product");
+                        if (rejection.isEmpty()) {
+                            accepted.add(t);
+                        } else {
+                            results.add(rejected(t.getT1(), t.getT2().getTransactionId(), rejection));
+                        }
+                    }
+                    return insertAll(accepted)
+                            .flatMapMany(outcomes -> {
+                                results.addAll(outcomes);
+                                results.sort(Comparator.comparingLong(BatchResult::getIndex));
+                                return Flux.fromIterable(results);
+                            });
+                });
+    }
+
+    // Motivo de rechazo por cuenta; cadena vacia si la cuenta es valida
+    private Mono<Map<String, String>> validateAccounts(List<Tuple2<Long, Payment>> chunk) {
+        return Flux.fromStream(chunk.stream().map(t -> t.getT2().getTransactionId()).filter(Objects::nonNull).distinct())
+                .flatMap(id -> transactionClient.getAccountSummary(id)
+                        .map(x -> x.getIndProduct() == 1 ? "" : "The payment you want to make is not a credit product")
+                        .defaultIfEmpty("The payment you want to make is not a credit product")
+                        .onErrorResume(e -> Mono.just("Account validation failed: " + e.getMessage()))
+                        .map(rejection -> Tuples.of(id, rejection)), VALIDATION_CONCURRENCY)
+                .collectMap(Tuple2::getT1, Tuple2::getT2);
+    }
+
+    // Un solo insertMany por bloque; si falla se guarda uno a uno para atribuir el error a cada registro.
+    // Los ids se asignan antes para que el reintento no duplique los que ya quedaron insertados
+    private Mono<List<BatchResult>> insertAll(List<Tuple2<Long, Payment>> accepted) {
+        if (accepted.isEmpty()) {
+            return Mono.just(new ArrayList<>());
+        }
+        List<Payment> payments = accepted.stream().map(Tuple2::getT2).collect(Collectors.toList());
+        payments.stream().filter(x -> x.getId() == null).forEach(x -> x.setId(ObjectId.get().toString()));
+        return outboxWriter.writeAll(paymentRepository.insert(payments).collectList(), PaymentServiceImpl::movements)
+                .then(Mono.fromSupplier(() -> accepted.stream()
+                        .map(t -> created(t.getT1(), t.getT2()))
+                        .collect(Collectors.toList())))
+                .onErrorResume(e -> {
+                    log.warn("Bulk insert failed, saving one by one - payment: " + e.getMessage());
+                    return Flux.fromIterable(accepted)
+                            .concatMap(t -> outboxWriter.write(paymentRepository.save(t.getT2()),
+                                    saved -> movement(saved.getTransactionId(), saved.getPaymentAmount(), 1))
+                                    .map(saved -> created(t.getT1(), saved))
+                                    .onErrorResume(error -> Mono.just(rejected(t.getT1(), t.getT2().getTransactionId(), error.getMessage()))))
+                            .collectList();
+                });
+    }
+
+    // Un evento por cuenta con el importe y la cantidad acumulados del bloque
+    private static List<OutboxEvent> movements(List<Payment> payments) {
+        Map<String, List<Payment>> byAccount = payments.stream()
+                .collect(Collectors.groupingBy(Payment::getTransactionId, LinkedHashMap::new, Collectors.toList()));
+        return byAccount.entrySet().stream()
+                .map(e -> movement(e.getKey(),
+                        e.getValue().stream().map(x -> amountOf(x.getPaymentAmount())).reduce(BigDecimal.ZERO, BigDecimal::add),
+                        e.getValue().size()))
+                .collect(Collectors.toList());
+    }
+
+    private static BatchResult created(long index, Payment payment) {
+        return BatchResult.builder().index(index).id(payment.getId()).transactionId(payment.getTransactionId())
+                .status(BatchResult.CREATED).build();
+    }
+
+    private static BatchResult rejected(long index, String transactionId, String message) {
+        return BatchResult.builder().index(index).transactionId(transactionId)
+                .status(BatchResult.REJECTED).message(message).build();
+    }
+
+    // El evento queda en el outbox junto con el movimiento y OutboxRelay lo entrega a ms-transaction
+    private static OutboxEvent movement(String transactionId, BigDecimal amount, int count) {
+        return OutboxEvent.movement("PAYMENT", transactionId, amount, count);
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
     }
 }
@@ -1,5 +1,6 @@
 package com.proyecto1.payment.controller;
 
+import com.proyecto1.payment.dto.BatchResult;
 import com.proyecto1.payment.entity.Payment;
 import com.proyecto1.payment.service.PaymentService;
 import com.proyecto1.payment.service.impl.PaymentServiceImpl;
@@ -20,6 +21,8 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Mockito.times;
 
@@ -101,6 +104,49 @@ public class PaymentControllerTest {
         Mockito.verify(paymentService,times(1)).findAll();
     }
 
+    @Test
+    void findByTransactionId() {
+        Payment payment = Payment.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+
+        Mockito.when(paymentService.findByTransactionId("342873574h")).thenReturn(Flux.just(payment));
+
+        webTestClient.get()
+                .uri("/payment/findByTransactionId/{id}", "342873574h")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].transactionId").isEqualTo("342873574h");
+
+        Mockito.verify(paymentService,times(1)).findByTransactionId("342873574h");
+    }
+
+    @Test
+    void findByTransactionIds() {
+        Payment payment = Payment.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+        List<String> ids = Arrays.asList("342873574h", "6767668789fds9");
+
+        Mockito.when(paymentService.findByTransactionIds(ids)).thenReturn(Flux.just(payment));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/payment/findByTransactionIds")
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Payment.class).hasSize(1);
+
+        Mockito.verify(paymentService,times(1)).findByTransactionIds(ids);
+    }
+
     @Test
      void FindById() {
 
@@ -151,4 +197,24 @@ public class PaymentControllerTest {
         Mockito.verify(paymentService,times(1)).delete(id);
 
     }
+
+    @Test
+    void createBatchFromNdjson() {
+        Mockito.when(paymentService.createBatch(Mockito.any())).thenAnswer(invocation -> invocation.<Flux<Payment>>getArgument(0)
+                .index()
+                .map(t -> BatchResult.builder().index(t.getT1()).transactionId(t.getT2().getTransactionId())
+                        .status(BatchResult.CREATED).build()));
+
+        webTestClient.post().uri("/payment/createBatch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"paymentAmount\":200,\"transactionId\":\"234234jnjk2345\"}\n"
+                        + "{\"paymentAmount\":50,\"transactionId\":\"99999999999\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BatchResult.class)
+                .contains(BatchResult.builder().index(0).transactionId("234234jnjk2345").status(BatchResult.CREATED).build(),
+                        BatchResult.builder().index(1).transactionId("99999999999").status(BatchResult.CREATED).build());
+    }
 }
@@ -1,7 +1,11 @@
 package com.proyecto1.payment.service.impl;
 
 import com.proyecto1.payment.client.TransactionClient;
+import com.proyecto1.payment.config.OutboxWriter;
+import com.proyecto1.payment.dto.AccountSummary;
+import com.proyecto1.payment.dto.BatchResult;
 import com.proyecto1.payment.entity.Payment;
+import com.proyecto1.payment.entity.OutboxEvent;
 import com.proyecto1.payment.entity.Product;
 import com.proyecto1.payment.entity.Transaction;
 import com.proyecto1.payment.repository.PaymentRepository;
@@ -15,12 +19,18 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @ExtendWith(SpringExtension.class)
 public class PaymentServiceImplTest {
@@ -30,6 +40,9 @@ public class PaymentServiceImplTest {
     @Mock
     private TransactionClient transactionClient;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private PaymentServiceImpl paymentServiceImpl;
 
@@ -64,8 +77,16 @@ public class PaymentServiceImplTest {
         transaction.setProduct(product);
 
 
-        Mockito.when(transactionClient.getTransactionWithDetails(transaction.getId())).thenReturn(Mono.just(transaction));
+        AccountSummary summary = AccountSummary.builder()
+                .id(transaction.getId())
+                .creditLimit(transaction.getCreditLimit())
+                .indProduct(product.getIndProduct())
+                .typeProduct(product.getTypeProduct())
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(transaction.getId())).thenReturn(Mono.just(summary));
         Mockito.when(paymentRepository.save(Mockito.any())).thenReturn(Mono.just(paymentMono));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> paymentServiceImpl.create(paymentMono)
                 .subscribe(response -> {
@@ -87,6 +108,7 @@ public class PaymentServiceImplTest {
 
         Mockito.when(paymentRepository.findById(id)).thenReturn(Mono.just(paymentMono));
         Mockito.when(paymentRepository.save(paymentMono)).thenReturn(Mono.just(paymentMono));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> paymentServiceImpl.update(paymentMono,id)
                 .subscribe(response -> {
@@ -144,6 +166,7 @@ public class PaymentServiceImplTest {
 
         Mockito.when(paymentRepository.findById("6767668789fds9")).thenReturn(Mono.just(paymentMono));
         Mockito.when(paymentRepository.delete(paymentMono)).thenReturn(Mono.empty());
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> paymentServiceImpl.delete(id)
                 .subscribe(response -> {
@@ -151,4 +174,118 @@ public class PaymentServiceImplTest {
                 }));
 
     }
+
+    @Test
+    void createBatchValidatesEachAccountOnce() {
+        Flux<Payment> batch = Flux.just(
+                Payment.builder().paymentAmount(BigDecimal.valueOf(100)).transactionId("34242423234").build(),
+                Payment.builder().paymentAmount(BigDecimal.valueOf(50)).transactionId("99999999999").build(),
+                Payment.builder().paymentAmount(BigDecimal.valueOf(25)).transactionId("34242423234").build(),
+                Payment.builder().paymentAmount(BigDecimal.valueOf(75)).transactionId("34242423234").build());
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(1).build()));
+        Mockito.when(transactionClient.getAccountSummary("99999999999"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("99999999999").indProduct(2).build()));
+        Mockito.when(paymentRepository.insert(Mockito.anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Payment>>getArgument(0)));
+        List<OutboxEvent> events = recordOutboxEvents();
+
+        StepVerifier.create(paymentServiceImpl.createBatch(batch))
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .assertNext(r -> {
+                    assertEquals(1, r.getIndex());
+                    assertEquals(BatchResult.REJECTED, r.getStatus());
+                })
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .verifyComplete();
+
+        Mockito.verify(transactionClient, Mockito.times(1)).getAccountSummary("34242423234");
+        Mockito.verify(paymentRepository, Mockito.times(1)).insert(Mockito.anyList());
+        assertEquals(1, events.size());
+        assertEquals("34242423234", events.get(0).getTransactionId());
+        assertEquals("PAYMENT", events.get(0).getType());
+        assertEquals(BigDecimal.valueOf(200), events.get(0).getAmount());
+        assertEquals(3, events.get(0).getCount());
+        Mockito.verify(transactionClient, Mockito.never()).applyMovement(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void createBatchInsertsInChunks() {
+        Flux<Payment> batch = Flux.range(0, 501)
+                .map(i -> Payment.builder().paymentAmount(BigDecimal.ONE).transactionId("34242423234").build());
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(1).build()));
+        List<Integer> inserted = new ArrayList<>();
+        Mockito.when(paymentRepository.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            inserted.add(payments.size());
+            return Flux.fromIterable(payments);
+        });
+        List<OutboxEvent> events = recordOutboxEvents();
+
+        StepVerifier.create(paymentServiceImpl.createBatch(batch))
+                .expectNextCount(501)
+                .verifyComplete();
+
+        // 500 registros por bloque; cada bloque valida la cuenta y emite un solo evento
+        assertEquals(Arrays.asList(500, 1), inserted);
+        Mockito.verify(transactionClient, Mockito.times(2)).getAccountSummary("34242423234");
+        assertEquals(2, events.size());
+        assertEquals(500, events.get(0).getCount());
+        assertEquals(BigDecimal.valueOf(500), events.get(0).getAmount());
+        assertEquals(1, events.get(1).getCount());
+    }
+
+    @Test
+    void createBatchSavesOneByOneWhenBulkInsertFails() {
+        Payment first = Payment.builder().paymentAmount(BigDecimal.valueOf(100)).transactionId("34242423234").build();
+        Payment duplicated = Payment.builder().paymentAmount(BigDecimal.valueOf(50)).transactionId("34242423234").build();
+        Payment last = Payment.builder().paymentAmount(BigDecimal.valueOf(25)).transactionId("34242423234").build();
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(1).build()));
+        Mockito.when(paymentRepository.insert(Mockito.anyList())).thenReturn(Flux.error(new IllegalStateException("bulk write error")));
+        Mockito.when(paymentRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return payment == duplicated ? Mono.error(new IllegalStateException("duplicate key")) : Mono.just(payment);
+        });
+        List<OutboxEvent> events = recordOutboxEvents();
+
+        StepVerifier.create(paymentServiceImpl.createBatch(Flux.just(first, duplicated, last)))
+                .assertNext(r -> {
+                    assertEquals(BatchResult.CREATED, r.getStatus());
+                    assertEquals(first.getId(), r.getId());
+                })
+                .assertNext(r -> {
+                    assertEquals(BatchResult.REJECTED, r.getStatus());
+                    assertEquals("duplicate key", r.getMessage());
+                })
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .verifyComplete();
+
+        // Los ids se asignan antes del insertMany y se conservan en el reintento
+        assertNotNull(first.getId());
+        Mockito.verify(paymentRepository, Mockito.times(3)).save(Mockito.any());
+        assertEquals(2, events.size());
+        assertEquals(BigDecimal.valueOf(100), events.get(0).getAmount());
+        assertEquals(1, events.get(0).getCount());
+        assertEquals(BigDecimal.valueOf(25), events.get(1).getAmount());
+    }
+
+    // Aplica las funciones de evento del outbox sobre lo guardado para poder inspeccionar los movimientos
+    private List<OutboxEvent> recordOutboxEvents() {
+        List<OutboxEvent> events = new ArrayList<>();
+        Mockito.when(outboxWriter.writeAll(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            Function<List<Payment>, List<OutboxEvent>> eventsOf = invocation.getArgument(1);
+            return invocation.<Mono<List<Payment>>>getArgument(0).doOnNext(saved -> events.addAll(eventsOf.apply(saved)));
+        });
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            Function<Payment, OutboxEvent> eventOf = invocation.getArgument(1);
+            return invocation.<Mono<Payment>>getArgument(0).doOnNext(saved -> events.add(eventOf.apply(saved)));
+        });
+        return events;
+    }
 }
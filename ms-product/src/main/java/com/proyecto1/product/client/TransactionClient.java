@@ -0,0 +1,42 @@
+package com.proyecto1.product.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.proyecto1.product.config.WebClientMetrics;
+import com.proyecto1.product.config.WebClientTagsProvider;
+
+import reactor.core.publisher.Mono;
+
+@Component
+public class TransactionClient {
+
+    private static final Logger log = LogManager.getLogger(TransactionClient.class);
+    private static final String SERVICE = "transaction-service";
+
+    private final WebClient client;
+    private final ReactiveDiscoveryClient discoveryClient;
+
+    public TransactionClient(WebClient.Builder builder, ReactiveDiscoveryClient discoveryClient, WebClientMetrics metrics) {
+        this.client = builder.clone().filter(metrics).build();
+        this.discoveryClient = discoveryClient;
+    }
+
+    // Cada instancia de ms-transaction tiene su propia cache, por eso se avisa a todas.
+    // Un fallo al invalidar no debe romper la operacion; la entrada vence por TTL.
+    public Mono<Void> evictProduct(String id){
+        return discoveryClient.getInstances(SERVICE)
+                .flatMap(instance -> client.delete()
+                        .uri(instance.getUri() + "/transaction/cache/product/{id}", id)
+                        .attribute(WebClientTagsProvider.TARGET_ATTRIBUTE, SERVICE)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .doOnError(e -> log.warn("Cache eviction of product " + id + " failed on " + instance.getUri() + ": " + e.getMessage()))
+                        .onErrorResume(e -> Mono.empty()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
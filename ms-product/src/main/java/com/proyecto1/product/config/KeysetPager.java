@@ -0,0 +1,40 @@
+package com.proyecto1.product.config;
+
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.proyecto1.product.dto.KeysetPage;
+
+import reactor.core.publisher.Mono;
+
+// Paginacion por cursor sobre _id: cada pagina es un rango {_id > after} que usa el indice de _id,
+// sin skip, asi que el costo no crece con el numero de pagina
+@Component
+public class KeysetPager {
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    PaginationProperties paginationProperties;
+
+    public <T> Mono<KeysetPage<T>> page(Class<T> entity, String after, Integer limit, Function<T, String> idOf) {
+        int size = paginationProperties.limitFor(limit);
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(size + 1);
+        if (after != null && !after.isEmpty()) {
+            // El mapeo de Spring solo convierte a ObjectId los _id en igualdad, $in, $nin y $ne;
+            // un $gt con el texto no supera a ningun ObjectId y la pagina saldria vacia
+            query.addCriteria(Criteria.where("_id").gt(ObjectId.isValid(after) ? new ObjectId(after) : after));
+        }
+        return mongoTemplate.find(query, entity)
+                .collectList()
+                .map(fetched -> KeysetPage.of(fetched, size, idOf));
+    }
+}
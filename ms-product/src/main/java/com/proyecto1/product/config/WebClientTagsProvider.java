@@ -0,0 +1,50 @@
+package com.proyecto1.product.config;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.actuate.metrics.web.reactive.client.WebClientExchangeTags;
+import org.springframework.boot.actuate.metrics.web.reactive.client.WebClientExchangeTagsProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+@Component
+public class WebClientTagsProvider implements WebClientExchangeTagsProvider {
+
+    // Atributo opcional de la peticion con el nombre del servicio destino, para los clientes
+    // que llaman a una instancia concreta y no al nombre registrado en Eureka.
+    public static final String TARGET_ATTRIBUTE = WebClientTagsProvider.class.getName() + ".target";
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    // Segmentos del path que son identificadores: ObjectId de Mongo, UUID o numericos.
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "/([0-9a-fA-F]{24}|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|\\d+)(?=/|$)");
+
+    @Override
+    public Iterable<Tag> tags(ClientRequest request, ClientResponse response, Throwable throwable) {
+        return Tags.of(WebClientExchangeTags.method(request), uri(request), clientName(request),
+                WebClientExchangeTags.status(response, throwable), WebClientExchangeTags.outcome(response));
+    }
+
+    public static Tag clientName(ClientRequest request) {
+        return request.attribute(TARGET_ATTRIBUTE)
+                .map(target -> Tag.of("client.name", target.toString()))
+                .orElseGet(() -> WebClientExchangeTags.clientName(request));
+    }
+
+    // Con plantilla se usa tal cual; sin ella los ids del path se sustituyen por {id}
+    // para que la etiqueta no crezca con cada documento consultado.
+    public static Tag uri(ClientRequest request) {
+        Optional<Object> template = request.attribute(URI_TEMPLATE_ATTRIBUTE);
+        if (template.isPresent()) {
+            return WebClientExchangeTags.uri(request);
+        }
+        return Tag.of("uri", ID_SEGMENT.matcher(request.url().getRawPath()).replaceAll("/{id}"));
+    }
+}
@@ -1,10 +1,13 @@
 package com.proyecto1.product.controller;
 
+import com.proyecto1.product.dto.KeysetPage;
 import com.proyecto1.product.entity.Product;
 import com.proyecto1.product.service.ProductService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -39,10 +43,15 @@ public class ProductController {
    * Method for return all products.
    * @return Flux of products
    */
-  @GetMapping("/findAll")
-  public Flux<Product> getCustomers() {
+  @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Mono<ResponseEntity<Flux<Product>>> getCustomers(@RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit) {
     LOG.info("Service call FindAll - product");
-    return productService.findAll();
+    // Sin after ni limit se responde la coleccion completa, como antes
+    if (after == null && limit == null) {
+      return Mono.just(ResponseEntity.ok(productService.findAll()));
+    }
+    return productService.findPage(after, limit).map(KeysetPage::toResponse);
   }
 
   @GetMapping("/find/{id}")
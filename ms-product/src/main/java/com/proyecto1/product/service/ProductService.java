@@ -1,5 +1,6 @@
 package com.proyecto1.product.service;
 
+import com.proyecto1.product.dto.KeysetPage;
 import com.proyecto1.product.entity.Product;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -8,6 +9,8 @@ public interface ProductService {
 
     Flux<Product> findAll();
 
+    Mono<KeysetPage<Product>> findPage(String after, Integer limit);
+
     Mono<Product> create(Product c);
 
     Mono<Product> findById(String id);
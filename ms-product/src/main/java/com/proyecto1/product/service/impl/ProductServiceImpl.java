@@ -1,5 +1,8 @@
 package com.proyecto1.product.service.impl;
 
+import com.proyecto1.product.client.TransactionClient;
+import com.proyecto1.product.config.KeysetPager;
+import com.proyecto1.product.dto.KeysetPage;
 import com.proyecto1.product.entity.Product;
 import com.proyecto1.product.repository.ProductRepository;
 import com.proyecto1.product.service.ProductService;
@@ -15,6 +18,10 @@ public class ProductServiceImpl implements ProductService {
     private static final Logger log = LogManager.getLogger(ProductServiceImpl.class);
     @Autowired
     ProductRepository productRepository;
+    @Autowired
+    KeysetPager keysetPager;
+    @Autowired
+    TransactionClient transactionClient;
 
     @Override
     public Flux<Product> findAll() {
@@ -22,6 +29,12 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Product>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - product");
+        return keysetPager.page(Product.class, after, limit, Product::getId);
+    }
+
     @Override
     public Mono<Product> create(Product c) {
         log.info("Method call Create - product");
@@ -44,13 +57,16 @@ public class ProductServiceImpl implements ProductService {
                     x.setTypeProduct(c.getTypeProduct());
                     x.setDescTypeProduct(c.getDescTypeProduct());
                     return x;
-                }).flatMap(productRepository::save);
+                }).flatMap(productRepository::save)
+                .flatMap(x -> transactionClient.evictProduct(id).thenReturn(x));
     }
 
     @Override
     public Mono<Product> delete(String id) {
         log.info("Method call delete - product");
         return productRepository.findById(id).flatMap(
-                x -> productRepository.delete(x).then(Mono.just(new Product())));
+                x -> productRepository.delete(x)
+                        .then(transactionClient.evictProduct(id))
+                        .then(Mono.just(new Product())));
     }
 }
@@ -1,5 +1,6 @@
 package com.proyecto1.product.service.impl;
 
+import com.proyecto1.product.client.TransactionClient;
 import com.proyecto1.product.entity.Product;
 import com.proyecto1.product.repository.ProductRepository;
 import org.bson.types.ObjectId;
@@ -21,6 +22,9 @@ public class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private TransactionClient transactionClient;
+
     @InjectMocks
     private ProductServiceImpl productServiceImpl;
 
@@ -54,6 +58,7 @@ public class ProductServiceImplTest {
         String id = "6767668789fds9";
         Mockito.when(productRepository.findById(id)).thenReturn(Mono.just(productMono));
         Mockito.when(productRepository.save(productMono)).thenReturn(Mono.just(productMono));
+        Mockito.when(transactionClient.evictProduct(id)).thenReturn(Mono.empty());
 
 
         assertDoesNotThrow(() -> productServiceImpl.update(productMono, id)
@@ -111,6 +116,7 @@ public class ProductServiceImplTest {
 
         Mockito.when(productRepository.findById("unhb2342342342")).thenReturn(Mono.just(productMono));
         Mockito.when(productRepository.delete(productMono)).thenReturn(Mono.empty());
+        Mockito.when(transactionClient.evictProduct(id)).thenReturn(Mono.empty());
 
         assertDoesNotThrow(() -> productServiceImpl.delete(id)
                 .subscribe(response -> {
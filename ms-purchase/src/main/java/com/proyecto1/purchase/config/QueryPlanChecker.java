@@ -0,0 +1,64 @@
+package com.proyecto1.purchase.config;
+
+import com.proyecto1.purchase.entity.Purchase;
+import java.util.Date;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class QueryPlanChecker {
+
+    private static final Logger log = LogManager.getLogger(QueryPlanChecker.class);
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkQueryPlans() {
+        ensureIndexes(Purchase.class)
+                .thenMany(Flux.just(
+                        new Document("transactionId", ""),
+                        // Estado de cuenta mensual: debe resolverse con un rango sobre (transactionId, date)
+                        new Document("transactionId", "").append("date", new Document("$gte", new Date()).append("$lte", new Date()))))
+                .concatMap(filter -> explain(Purchase.class, filter))
+                .subscribe(null, error -> log.warn("Query plan check skipped - purchase: " + error.getMessage()));
+    }
+
+    private Mono<Void> ensureIndexes(Class<?> entity) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(entity);
+        return Flux.fromIterable(resolver.resolveIndexFor(entity))
+                .concatMap(indexOps::ensureIndex)
+                .then();
+    }
+
+    private Mono<Void> explain(Class<?> entity, Document filter) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        String field = String.join(", ", filter.keySet());
+        Document command = new Document("explain", new Document("find", collection)
+                        .append("filter", filter)
+                        .append("sort", new Document("date", 1)))
+                .append("verbosity", "queryPlanner");
+        return mongoTemplate.executeCommand(command)
+                .doOnNext(plan -> {
+                    Object winningPlan = plan.get("queryPlanner", new Document()).get("winningPlan");
+                    if (String.valueOf(winningPlan).contains("COLLSCAN")) {
+                        log.warn("Query by " + field + " on " + collection + " uses COLLSCAN");
+                    } else {
+                        log.info("Query by " + field + " on " + collection + " uses an index");
+                    }
+                })
+                .then();
+    }
+}
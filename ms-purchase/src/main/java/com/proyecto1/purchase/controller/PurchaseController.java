@@ -1,12 +1,21 @@
 package com.proyecto1.purchase.controller;
 
+import com.proyecto1.purchase.dto.KeysetPage;
 import com.proyecto1.purchase.entity.Purchase;
 import com.proyecto1.purchase.service.PurchaseService;
 
 import com.proyecto1.purchase.service.impl.PurchaseServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,10 +27,15 @@ public class PurchaseController {
     @Autowired
     private PurchaseService purchaseService;
 
-    @GetMapping("/findAll")
-    public Flux<Purchase> getPurchases(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Purchase>>> getPurchases(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call FindAll - purchase");
-        return purchaseService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(purchaseService.findAll()));
+        }
+        return purchaseService.findPage(after, limit).map(KeysetPage::toResponse);
     }
 
     @GetMapping("/find/{id}")
@@ -30,6 +44,29 @@ public class PurchaseController {
         return purchaseService.findById(id);
     }
 
+    @GetMapping(value = "/findByTransactionId/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Purchase> getPurchasesByTransactionId(@PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        log.info("Service call FindByTransactionId - purchase");
+        if (from == null && to == null) {
+            return purchaseService.findAllByTransactionId(id);
+        }
+        return purchaseService.findAllByTransactionId(id, from, to);
+    }
+
+    @GetMapping(value = "/findByTransactionIds", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Purchase> getPurchasesByTransactionIds(@RequestParam List<String> ids){
+        log.info("Service call FindByTransactionIds - purchase");
+        return purchaseService.findAllByTransactionIds(ids);
+    }
+
+    @GetMapping("/totalByTransactionId/{id}")
+    public Mono<BigDecimal> getTotalByTransactionId(@PathVariable String id){
+        log.info("Service call TotalByTransactionId - purchase");
+        return purchaseService.totalByTransactionId(id);
+    }
+
     @PostMapping("/create")
     public Mono<Purchase> createPurchase(@RequestBody Purchase c){
         log.info("Service call Create - purchase");
@@ -9,11 +9,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
 
+// El prefijo transactionId cubre tambien las busquedas solo por cuenta
+@CompoundIndex(name = "transactionId_date", def = "{'transactionId': 1, 'date': 1}")
 @Document(collection = "schema_purchase.puchases")
 @Data
 @Builder
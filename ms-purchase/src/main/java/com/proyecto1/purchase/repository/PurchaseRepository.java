@@ -1,10 +1,30 @@
 package com.proyecto1.purchase.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 
 import com.proyecto1.purchase.entity.Purchase;
 
+import reactor.core.publisher.Flux;
+
 @Repository
-public interface PurchaseRepository extends ReactiveCrudRepository<Purchase, String> {
+public interface PurchaseRepository extends ReactiveCrudRepository<Purchase, String>, PurchaseRepositoryCustom {
+
+    Flux<Purchase> findByTransactionId(String transactionId);
+
+    Flux<Purchase> findByTransactionIdOrderByDateAsc(String transactionId);
+
+    // Rango inclusivo en ambos extremos; el Between derivado excluye los limites
+    @Query(value = "{ 'transactionId': ?0, 'date': { $gte: ?1, $lte: ?2 } }", sort = "{ 'date': 1 }")
+    Flux<Purchase> findByTransactionIdAndDateRange(String transactionId, LocalDate from, LocalDate to);
+
+    Flux<Purchase> findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(String transactionId, LocalDate from);
+
+    Flux<Purchase> findByTransactionIdAndDateLessThanEqualOrderByDateAsc(String transactionId, LocalDate to);
+
+    Flux<Purchase> findByTransactionIdIn(Collection<String> transactionIds);
 }
@@ -0,0 +1,10 @@
+package com.proyecto1.purchase.repository;
+
+import java.math.BigDecimal;
+
+import reactor.core.publisher.Mono;
+
+public interface PurchaseRepositoryCustom {
+
+    Mono<BigDecimal> sumPurchaseAmountByTransactionId(String transactionId);
+}
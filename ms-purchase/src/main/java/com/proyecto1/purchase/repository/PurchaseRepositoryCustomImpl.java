@@ -0,0 +1,45 @@
+package com.proyecto1.purchase.repository;
+
+import java.math.BigDecimal;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.proyecto1.purchase.entity.Purchase;
+
+import reactor.core.publisher.Mono;
+
+public class PurchaseRepositoryCustomImpl implements PurchaseRepositoryCustom {
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    // $match sobre el indice de transactionId y $group en el servidor; solo viaja el total.
+    // purchaseAmount se guarda como texto, por eso se convierte con $toDecimal antes de sumar.
+    @Override
+    public Mono<BigDecimal> sumPurchaseAmountByTransactionId(String transactionId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("transactionId").is(transactionId)),
+                context -> new Document("$group", new Document("_id", null)
+                        .append("total", new Document("$sum", new Document("$toDecimal", "$purchaseAmount")))));
+        return mongoTemplate.aggregate(aggregation, Purchase.class, Document.class)
+                .next()
+                .map(result -> toBigDecimal(result.get("total")))
+                .defaultIfEmpty(BigDecimal.ZERO);
+    }
+
+    // Si todos los montos son nulos $sum devuelve el entero 0 y no un Decimal128
+    private static BigDecimal toBigDecimal(Object total) {
+        if (total instanceof Decimal128) {
+            return ((Decimal128) total).bigDecimalValue();
+        }
+        if (total instanceof Number) {
+            return new BigDecimal(total.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+}
@@ -1,7 +1,12 @@
 package com.proyecto1.purchase.service;
 
+import com.proyecto1.purchase.dto.KeysetPage;
 import com.proyecto1.purchase.entity.Purchase;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,12 +14,20 @@ public interface PurchaseService {
 
     Flux<Purchase> findAll();
 
+    Mono<KeysetPage<Purchase>> findPage(String after, Integer limit);
+
     Mono<Purchase> create(Purchase c);
 
     Mono<Purchase> findById(String id);
     
     Flux<Purchase> findAllByTransactionId(String id);
 
+    Flux<Purchase> findAllByTransactionId(String id, LocalDate from, LocalDate to);
+
+    Flux<Purchase> findAllByTransactionIds(List<String> ids);
+
+    Mono<BigDecimal> totalByTransactionId(String id);
+
     Mono<Purchase> update(Purchase c, String id);
 
     Mono<Purchase> delete(String id);
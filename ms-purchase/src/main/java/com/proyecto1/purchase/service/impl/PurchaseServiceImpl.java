@@ -1,11 +1,20 @@
 package com.proyecto1.purchase.service.impl;
 
 import com.proyecto1.purchase.client.TransactionClient;
+import com.proyecto1.purchase.config.KeysetPager;
+import com.proyecto1.purchase.config.OutboxWriter;
+import com.proyecto1.purchase.dto.KeysetPage;
+import com.proyecto1.purchase.dto.MovementDTO;
+import com.proyecto1.purchase.dto.ReservationDTO;
+import com.proyecto1.purchase.entity.OutboxEvent;
 import com.proyecto1.purchase.entity.Purchase;
 import com.proyecto1.purchase.repository.PurchaseRepository;
 import com.proyecto1.purchase.service.PurchaseService;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,13 +22,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 @Service
 public class PurchaseServiceImpl implements PurchaseService {
 
     private static final Logger log = LogManager.getLogger(PurchaseServiceImpl.class);
+    private static final int RELEASE_RETRIES = 3;
+    private static final Duration RELEASE_BACKOFF = Duration.ofMillis(200);
     @Autowired
     PurchaseRepository purchaseRepository;
+
+    @Autowired
+    KeysetPager keysetPager;
+
+    @Autowired
+    OutboxWriter outboxWriter;
     
     @Autowired
     TransactionClient transactionClient;
@@ -30,22 +48,33 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Purchase>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - purchase");
+        return keysetPager.page(Purchase.class, after, limit, Purchase::getId);
+    }
+
     @Override
     public Mono<Purchase> create(Purchase purchase) {
         log.info("Method call create - purchase");
         return Mono.just(purchase).flatMap(p -> {
-        	return transactionClient.getTransactionWithDetails(p.getTransactionId())
-                    .filter(trans -> trans.getProduct().getTypeProduct() == 6) // Valida si es una tarjeta de credito
+        	return transactionClient.getAccountSummary(p.getTransactionId())
+                    .filter(trans -> trans.getTypeProduct() == 6) // Valida si es una tarjeta de credito
                     .flatMap(t -> {
-                    	return this.findAllByTransactionId(purchase.getTransactionId()).map(s -> s.getPurchaseAmount())
-                    	.reduce(new BigDecimal(0), (x1, x2) -> x1.add(x2))
-                    	.flatMap(totalPurchase -> {
-                    		if(t.getCreditLimit().compareTo(totalPurchase.add(purchase.getPurchaseAmount())) > -1) {// Valida que el monto disponible sea mayor o igual al monto por comprar
-                    			return purchaseRepository.save(purchase);
-                    		}else{
-                                return Mono.error(new RuntimeException("The purchase could not be made, check your available balance or if the product is a credit card"));
-                            }
-                    	});
+                        // El total de compras se mantiene en la cuenta; si aun no lo tiene se suma en Mongo
+                        return Mono.justOrEmpty(t.getTotalPurchases())
+                                .switchIfEmpty(Mono.defer(() -> this.totalByTransactionId(purchase.getTransactionId())))
+                                .flatMap(totalPurchase -> {
+                                    if(t.getCreditLimit().compareTo(totalPurchase.add(purchase.getPurchaseAmount())) > -1) {// Valida que el monto disponible sea mayor o igual al monto por comprar
+                                        ReservationDTO reservation = ReservationDTO.builder()
+                                                .amount(purchase.getPurchaseAmount())
+                                                .baseline(t.getTotalPurchases() == null ? totalPurchase : null)
+                                                .build();
+                                        return reserveAndSave(purchase, reservation);
+                                    }else{
+                                        return Mono.error(new RuntimeException("The purchase could not be made, check your available balance or if the product is a credit card"));
+                                    }
+                                });
                     });
         });
     }
@@ -60,23 +89,95 @@ public class PurchaseServiceImpl implements PurchaseService {
     public Mono<Purchase> update(Purchase c, String id) {
         log.info("Method call Update - purchase");
         return purchaseRepository.findById(id)
-                .map( x -> {
+                .flatMap( x -> {
+                    BigDecimal delta = amountOf(c.getPurchaseAmount()).subtract(amountOf(x.getPurchaseAmount()));
                     x.setDate(c.getDate());
                     x.setPurchaseAmount(c.getPurchaseAmount());
                     x.setDescription(c.getDescription());
-                    return x;
-                }).flatMap(purchaseRepository::save);
+                    return outboxWriter.write(purchaseRepository.save(x),
+                            saved -> movement(saved.getTransactionId(), delta, 0));
+                });
     }
 
     @Override
     public Mono<Purchase> delete(String id) {
         log.info("Method call delete - purchase");
-        return purchaseRepository.findById(id).flatMap( x -> purchaseRepository.delete(x).then(Mono.just(new Purchase())));
+        return purchaseRepository.findById(id).flatMap( x -> outboxWriter.write(purchaseRepository.delete(x).thenReturn(x),
+                        deleted -> movement(x.getTransactionId(), amountOf(x.getPurchaseAmount()).negate(), -1))
+                .then(Mono.just(new Purchase())));
     }
 
 	@Override
 	public Flux<Purchase> findAllByTransactionId(String id) {
+		return findAllByTransactionId(id, null, null);
+	}
+
+	@Override
+	public Flux<Purchase> findAllByTransactionId(String id, LocalDate from, LocalDate to) {
 		log.info("Method call FindAllByTransactionId - purchase");
-        return purchaseRepository.findAll().filter(purch -> purch.getTransactionId().equalsIgnoreCase(id));
+		if (from == null && to == null) {
+			return purchaseRepository.findByTransactionIdOrderByDateAsc(id);
+		}
+		if (from != null && to != null) {
+			if (from.isAfter(to)) {
+				return Flux.error(new RuntimeException("The start date must not be after the end date"));
+			}
+			return purchaseRepository.findByTransactionIdAndDateRange(id, from, to);
+		}
+		// Un extremo nulo deja el rango abierto; todas las variantes recorren el indice (transactionId, date)
+		if (from != null) {
+			return purchaseRepository.findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(id, from);
+		}
+		return purchaseRepository.findByTransactionIdAndDateLessThanEqualOrderByDateAsc(id, to);
+	}
+
+	@Override
+	public Flux<Purchase> findAllByTransactionIds(List<String> ids) {
+		log.info("Method call FindAllByTransactionIds - purchase");
+        return purchaseRepository.findByTransactionIdIn(ids);
+	}
+
+	@Override
+	public Mono<BigDecimal> totalByTransactionId(String id) {
+		log.info("Method call TotalByTransactionId - purchase");
+        return purchaseRepository.sumPurchaseAmountByTransactionId(id);
 	}
+
+    // La validacion previa no alcanza con compras simultaneas: la reserva en ms-transaction es atomica
+    // y solo pasa si el monto entra en el limite. Si luego falla el guardado se libera la reserva.
+    private Mono<Purchase> reserveAndSave(Purchase purchase, ReservationDTO reservation) {
+        return transactionClient.reservePurchase(purchase.getTransactionId(), reservation)
+                .flatMap(reserved -> {
+                    if (!reserved) {
+                        return Mono.error(new RuntimeException("The purchase could not be made, check your available balance or if the product is a credit card"));
+                    }
+                    return purchaseRepository.save(purchase)
+                            .onErrorResume(e -> releaseReservation(purchase).then(Mono.error(e)));
+                });
+    }
+
+    // El evento queda en el outbox junto con el movimiento y OutboxRelay lo entrega a ms-transaction
+    private static OutboxEvent movement(String transactionId, BigDecimal amount, int count) {
+        return OutboxEvent.movement("PURCHASE", transactionId, amount, count);
+    }
+
+    // La compra no se guardo: la liberacion va al outbox y OutboxRelay la reintenta hasta entregarla.
+    // Si Mongo tampoco acepta el evento se libera directamente en ms-transaction con el mismo eventId,
+    // asi un reintento tras una respuesta perdida no descuenta dos veces
+    private Mono<Void> releaseReservation(Purchase purchase) {
+        OutboxEvent release = movement(purchase.getTransactionId(), amountOf(purchase.getPurchaseAmount()).negate(), -1);
+        MovementDTO movement = MovementDTO.builder().type(release.getType()).amount(release.getAmount())
+                .count(release.getCount()).eventId(release.getId()).build();
+        return outboxWriter.enqueue(release)
+                .retryWhen(Retry.backoff(RELEASE_RETRIES, RELEASE_BACKOFF))
+                .onErrorResume(e -> transactionClient.applyMovement(release.getTransactionId(), movement)
+                        .retryWhen(Retry.backoff(RELEASE_RETRIES, RELEASE_BACKOFF)))
+                .doOnError(e -> log.error("Reservation release of " + release.getAmount() + " lost for transaction "
+                        + release.getTransactionId() + " (event " + release.getId() + ") - purchase: " + e.getMessage()))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
 }
@@ -20,6 +20,8 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Mockito.times;
 
@@ -98,6 +100,49 @@ public class PurchaseControllerTest {
         Mockito.verify(purchaseService,times(1)).findAll();
     }
 
+    @Test
+    public void findByTransactionId() {
+        Purchase purchase = Purchase.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+
+        Mockito.when(purchaseService.findAllByTransactionId("342873574h")).thenReturn(Flux.just(purchase));
+
+        webTestClient.get()
+                .uri("/purchase/findByTransactionId/{id}", "342873574h")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].transactionId").isEqualTo("342873574h");
+
+        Mockito.verify(purchaseService,times(1)).findAllByTransactionId("342873574h");
+    }
+
+    @Test
+    public void findByTransactionIds() {
+        Purchase purchase = Purchase.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+        List<String> ids = Arrays.asList("342873574h", "6767668789fds9");
+
+        Mockito.when(purchaseService.findAllByTransactionIds(ids)).thenReturn(Flux.just(purchase));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/purchase/findByTransactionIds")
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Purchase.class).hasSize(1);
+
+        Mockito.verify(purchaseService,times(1)).findAllByTransactionIds(ids);
+    }
+
     @Test
     public void FindById() {
 
@@ -0,0 +1,102 @@
+package com.proyecto1.purchase.repository;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.proyecto1.purchase.entity.Purchase;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class PurchaseRepositoryCustomImplTest {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private PurchaseRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        repository = new PurchaseRepositoryCustomImpl();
+        repository.mongoTemplate = mongoTemplate;
+    }
+
+    // El Mongo embebido no soporta $toDecimal: se verifica el pipeline que recibe el servidor,
+    // mapeado contra Purchase como lo hace ReactiveMongoTemplate
+    @Test
+    void sumMatchesAccountAndGroupsDecimalAmountsOnServer() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Purchase.class), eq(Document.class))).thenReturn(Flux.empty());
+
+        repository.sumPurchaseAmountByTransactionId("t1").block();
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Purchase.class), eq(Document.class));
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        TypeBasedAggregationOperationContext context = new TypeBasedAggregationOperationContext(Purchase.class,
+                mappingContext, new QueryMapper(converter));
+
+        assertEquals(Arrays.asList(
+                new Document("$match", new Document("transactionId", "t1")),
+                new Document("$group", new Document("_id", null)
+                        .append("total", new Document("$sum", new Document("$toDecimal", "$purchaseAmount"))))),
+                aggregation.getValue().toPipeline(context));
+    }
+
+    @Test
+    void sumReadsDecimalTotal() {
+        total(new Decimal128(new BigDecimal("150.50")));
+
+        StepVerifier.create(repository.sumPurchaseAmountByTransactionId("t1"))
+                .expectNext(new BigDecimal("150.50"))
+                .verifyComplete();
+    }
+
+    @Test
+    void sumOfNullAmountsIsZero() {
+        total(0);
+
+        StepVerifier.create(repository.sumPurchaseAmountByTransactionId("t1"))
+                .expectNextMatches(total -> total.compareTo(BigDecimal.ZERO) == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void sumWithoutPurchasesIsZero() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Purchase.class), eq(Document.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(repository.sumPurchaseAmountByTransactionId("t1"))
+                .expectNext(BigDecimal.ZERO)
+                .verifyComplete();
+    }
+
+    private void total(Object total) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Purchase.class), eq(Document.class)))
+                .thenReturn(Flux.just(new Document("_id", null).append("total", total)));
+    }
+}
@@ -1,6 +1,10 @@
 package com.proyecto1.purchase.service.impl;
 
 import com.proyecto1.purchase.client.TransactionClient;
+import com.proyecto1.purchase.config.OutboxWriter;
+import com.proyecto1.purchase.dto.AccountSummary;
+import com.proyecto1.purchase.dto.MovementDTO;
+import com.proyecto1.purchase.entity.OutboxEvent;
 import com.proyecto1.purchase.entity.Product;
 import com.proyecto1.purchase.entity.Purchase;
 import com.proyecto1.purchase.entity.Transaction;
@@ -8,15 +12,18 @@ import com.proyecto1.purchase.repository.PurchaseRepository;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -30,6 +37,9 @@ public class PurchaseServiceImplTest {
     @Mock
     private TransactionClient transactionClient;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private PurchaseServiceImpl purchaseServiceImpl;
 
@@ -64,8 +74,18 @@ public class PurchaseServiceImplTest {
         transaction.setProduct(product);
 
 
-        Mockito.when(transactionClient.getTransactionWithDetails(transaction.getId())).thenReturn(Mono.just(transaction));
+        AccountSummary summary = AccountSummary.builder()
+                .id(transaction.getId())
+                .creditLimit(transaction.getCreditLimit())
+                .indProduct(product.getIndProduct())
+                .typeProduct(product.getTypeProduct())
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(transaction.getId())).thenReturn(Mono.just(summary));
+        Mockito.when(purchaseRepository.sumPurchaseAmountByTransactionId(transaction.getId())).thenReturn(Mono.just(BigDecimal.ZERO));
+        Mockito.when(transactionClient.reservePurchase(Mockito.eq(transaction.getId()), Mockito.any())).thenReturn(Mono.just(true));
         Mockito.when(purchaseRepository.save(Mockito.any())).thenReturn(Mono.just(purchaseMono));
+        Mockito.when(transactionClient.applyMovement(Mockito.any(), Mockito.any())).thenReturn(Mono.empty());
 
         assertDoesNotThrow(() -> purchaseServiceImpl.create(purchaseMono)
                 .subscribe(response -> {
@@ -73,6 +93,119 @@ public class PurchaseServiceImplTest {
                 }));
     }
 
+    @Test
+    void createPurchaseOverCreditLimit() {
+        Purchase purchaseMono = Purchase.builder()
+                .id(ObjectId.get().toString())
+                .date(LocalDate.now())
+                .purchaseAmount(BigDecimal.valueOf(50))
+                .description("demo purchase")
+                .transactionId("34242423234")
+                .build();
+
+        AccountSummary summary = AccountSummary.builder()
+                .id("34242423234")
+                .creditLimit(BigDecimal.valueOf(100))
+                .totalPurchases(BigDecimal.valueOf(60))
+                .indProduct(1)
+                .typeProduct(6)
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(summary.getId())).thenReturn(Mono.just(summary));
+
+        StepVerifier.create(purchaseServiceImpl.create(purchaseMono))
+                .expectError(RuntimeException.class)
+                .verify();
+        Mockito.verify(purchaseRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(purchaseRepository, Mockito.never()).findByTransactionId(Mockito.any());
+        Mockito.verify(purchaseRepository, Mockito.never()).sumPurchaseAmountByTransactionId(Mockito.any());
+    }
+
+    @Test
+    void createPurchaseWithoutMaterializedTotal() {
+        Purchase purchaseMono = Purchase.builder()
+                .id(ObjectId.get().toString())
+                .date(LocalDate.now())
+                .purchaseAmount(BigDecimal.valueOf(50))
+                .description("demo purchase")
+                .transactionId("34242423234")
+                .build();
+
+        AccountSummary summary = AccountSummary.builder()
+                .id("34242423234")
+                .creditLimit(BigDecimal.valueOf(100))
+                .indProduct(1)
+                .typeProduct(6)
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(summary.getId())).thenReturn(Mono.just(summary));
+        Mockito.when(purchaseRepository.sumPurchaseAmountByTransactionId(summary.getId())).thenReturn(Mono.just(BigDecimal.valueOf(60)));
+
+        StepVerifier.create(purchaseServiceImpl.create(purchaseMono))
+                .expectError(RuntimeException.class)
+                .verify();
+        Mockito.verify(purchaseRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void createPurchaseReleasesReservationThroughOutboxWhenSaveFails() {
+        Purchase purchaseMono = reservedPurchase();
+        Mockito.when(purchaseRepository.save(Mockito.any())).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+        Mockito.when(outboxWriter.enqueue(Mockito.any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(purchaseServiceImpl.create(purchaseMono))
+                .expectErrorMessage("mongo down")
+                .verify();
+
+        ArgumentCaptor<OutboxEvent> release = ArgumentCaptor.forClass(OutboxEvent.class);
+        Mockito.verify(outboxWriter).enqueue(release.capture());
+        assertEquals("34242423234", release.getValue().getTransactionId());
+        assertEquals(BigDecimal.valueOf(-50), release.getValue().getAmount());
+        assertEquals(-1, release.getValue().getCount());
+        Mockito.verify(transactionClient, Mockito.never()).applyMovement(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void createPurchaseReleasesReservationDirectlyWhenOutboxFails() {
+        Purchase purchaseMono = reservedPurchase();
+        Mockito.when(purchaseRepository.save(Mockito.any())).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+        Mockito.when(outboxWriter.enqueue(Mockito.any())).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+        AtomicInteger attempts = new AtomicInteger();
+        Mockito.when(transactionClient.applyMovement(Mockito.any(), Mockito.any())).thenReturn(Mono.defer(() ->
+                attempts.incrementAndGet() == 1 ? Mono.error(new IllegalStateException("timeout")) : Mono.empty()));
+
+        StepVerifier.create(purchaseServiceImpl.create(purchaseMono))
+                .expectErrorMessage("mongo down")
+                .verify();
+
+        ArgumentCaptor<OutboxEvent> release = ArgumentCaptor.forClass(OutboxEvent.class);
+        Mockito.verify(outboxWriter).enqueue(release.capture());
+        ArgumentCaptor<MovementDTO> movement = ArgumentCaptor.forClass(MovementDTO.class);
+        Mockito.verify(transactionClient).applyMovement(Mockito.eq("34242423234"), movement.capture());
+        assertEquals(2, attempts.get());
+        assertEquals(BigDecimal.valueOf(-50), movement.getValue().getAmount());
+        assertEquals(release.getValue().getId(), movement.getValue().getEventId());
+    }
+
+    private Purchase reservedPurchase() {
+        AccountSummary summary = AccountSummary.builder()
+                .id("34242423234")
+                .creditLimit(BigDecimal.valueOf(100))
+                .totalPurchases(BigDecimal.ZERO)
+                .indProduct(1)
+                .typeProduct(6)
+                .build();
+        Mockito.when(transactionClient.getAccountSummary(summary.getId())).thenReturn(Mono.just(summary));
+        Mockito.when(transactionClient.reservePurchase(Mockito.eq(summary.getId()), Mockito.any())).thenReturn(Mono.just(true));
+        return Purchase.builder()
+                .id(ObjectId.get().toString())
+                .date(LocalDate.now())
+                .purchaseAmount(BigDecimal.valueOf(50))
+                .description("demo purchase")
+                .transactionId(summary.getId())
+                .build();
+    }
+
     @Test
      void updateDepositTest() {
         Purchase purchaseMono = Purchase.builder()
@@ -86,6 +219,7 @@ public class PurchaseServiceImplTest {
 
         Mockito.when(purchaseRepository.findById(id)).thenReturn(Mono.just(purchaseMono));
         Mockito.when(purchaseRepository.save(purchaseMono)).thenReturn(Mono.just(purchaseMono));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> purchaseServiceImpl.update(purchaseMono,id)
                 .subscribe(response -> {
@@ -144,6 +278,7 @@ public class PurchaseServiceImplTest {
 
         Mockito.when(purchaseRepository.findById("6767668789fds9")).thenReturn(Mono.just(purchaseMono));
         Mockito.when(purchaseRepository.delete(purchaseMono)).thenReturn(Mono.empty());
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> purchaseServiceImpl.delete(id)
                 .subscribe(response -> {
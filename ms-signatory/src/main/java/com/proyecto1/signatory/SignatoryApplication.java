@@ -2,9 +2,13 @@ package com.proyecto1.signatory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 
+import com.proyecto1.signatory.config.LoadBalancerConfig;
+
 @EnableEurekaClient
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.class)
 @SpringBootApplication
 public class SignatoryApplication {
 
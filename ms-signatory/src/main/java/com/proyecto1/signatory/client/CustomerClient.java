@@ -1,5 +1,7 @@
 package com.proyecto1.signatory.client;
 
+import com.proyecto1.signatory.config.SingleFlight;
+import com.proyecto1.signatory.config.WebClientFactory;
 import com.proyecto1.signatory.entity.Customer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -8,15 +10,24 @@ import reactor.core.publisher.Mono;
 @Component
 public class CustomerClient {
 
-    private WebClient client = WebClient.create("http://customer-service:9002/customer");
+    private final WebClient client;
+    private final SingleFlight<Customer> singleFlight = new SingleFlight<>();
+
+    public CustomerClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("customer-service", "http://customer-service/customer");
+    }
 
     public Mono<Customer> getCustomer(String id){
-        return client.get()
+        return singleFlight.execute(id, () -> client.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/find/{id}")
                         .build(id)
                 )
                 .retrieve()
-                .bodyToMono(Customer.class);
+                .bodyToMono(Customer.class));
     };
+
+    public SingleFlight<Customer> getSingleFlight() {
+        return singleFlight;
+    }
 }
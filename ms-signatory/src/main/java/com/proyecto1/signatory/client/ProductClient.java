@@ -1,5 +1,7 @@
 package com.proyecto1.signatory.client;
 
+import com.proyecto1.signatory.config.SingleFlight;
+import com.proyecto1.signatory.config.WebClientFactory;
 import com.proyecto1.signatory.entity.Product;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -7,15 +9,24 @@ import reactor.core.publisher.Mono;
 
 @Component
 public class ProductClient {
-    private WebClient client = WebClient.create("http://product-service:9003/product");
+    private final WebClient client;
+    private final SingleFlight<Product> singleFlight = new SingleFlight<>();
+
+    public ProductClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("product-service", "http://product-service/product");
+    }
 
     public Mono<Product> getProduct(String id){
-        return client.get()
+        return singleFlight.execute(id, () -> client.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/find/{id}")
                         .build(id)
                 )
                 .retrieve()
-                .bodyToMono(Product.class);
+                .bodyToMono(Product.class));
     };
+
+    public SingleFlight<Product> getSingleFlight() {
+        return singleFlight;
+    }
 }
@@ -0,0 +1,47 @@
+package com.proyecto1.signatory.config;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Se registra con @LoadBalancerClients; no lleva @Configuration para que no la tome el component scan
+public class LoadBalancerConfig {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context, Environment environment) {
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder().withDiscoveryClient();
+        if ("zone-latency".equals(strategy(environment))) {
+            builder = builder.withZonePreference();
+        }
+        return builder.withCaching().build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory) {
+        String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        switch (strategy(environment)) {
+            case "least-outstanding":
+                return new InstanceLoadBalancer(loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class),
+                        name, InstanceLoadBalancer.Strategy.LEAST_OUTSTANDING);
+            case "zone-latency":
+                return new InstanceLoadBalancer(loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class),
+                        name, InstanceLoadBalancer.Strategy.LATENCY);
+            default:
+                return new RoundRobinLoadBalancer(loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class), name);
+        }
+    }
+
+    // round-robin | least-outstanding | zone-latency, general o por servicio destino
+    private String strategy(Environment environment) {
+        String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return environment.getProperty("loadbalancer.services." + name + ".strategy",
+                environment.getProperty("loadbalancer.strategy", "round-robin"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.proyecto1.signatory.config;
+
+import com.proyecto1.signatory.entity.Signatory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class QueryPlanChecker {
+
+    private static final Logger log = LogManager.getLogger(QueryPlanChecker.class);
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkQueryPlans() {
+        ensureIndexes(Signatory.class)
+                .thenMany(Flux.just("transactionId"))
+                .concatMap(field -> explain(Signatory.class, field))
+                .subscribe(null, error -> log.warn("Query plan check skipped - signatory: " + error.getMessage()));
+    }
+
+    private Mono<Void> ensureIndexes(Class<?> entity) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(entity);
+        return Flux.fromIterable(resolver.resolveIndexFor(entity))
+                .concatMap(indexOps::ensureIndex)
+                .then();
+    }
+
+    private Mono<Void> explain(Class<?> entity, String field) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        Document command = new Document("explain", new Document("find", collection)
+                        .append("filter", new Document(field, "")))
+                .append("verbosity", "queryPlanner");
+        return mongoTemplate.executeCommand(command)
+                .doOnNext(plan -> {
+                    Object winningPlan = plan.get("queryPlanner", new Document()).get("winningPlan");
+                    if (String.valueOf(winningPlan).contains("COLLSCAN")) {
+                        log.warn("Query by " + field + " on " + collection + " uses COLLSCAN");
+                    } else {
+                        log.info("Query by " + field + " on " + collection + " uses an index");
+                    }
+                })
+                .then();
+    }
+}
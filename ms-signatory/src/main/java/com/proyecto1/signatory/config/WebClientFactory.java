@@ -0,0 +1,65 @@
+package com.proyecto1.signatory.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Component
+public class WebClientFactory {
+
+    private final WebClientProperties properties;
+    private final WebClient.Builder builder;
+    private final ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction;
+    private final WebClientMetrics metrics;
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public WebClientFactory(WebClientProperties properties, WebClient.Builder builder,
+            ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction, WebClientMetrics metrics) {
+        this.properties = properties;
+        this.builder = builder;
+        this.loadBalancerFunction = loadBalancerFunction;
+        this.metrics = metrics;
+    }
+
+    // Un pool de conexiones por servicio destino, compartido por todos los clientes que lo usan.
+    // El host de baseUrl es el nombre del servicio en Eureka y se resuelve con Spring Cloud LoadBalancer.
+    // Las metricas se toman antes del balanceo para etiquetarlas con el servicio y no con la instancia.
+    public WebClient create(String service, String baseUrl) {
+        WebClientProperties.Pool pool = properties.poolFor(service);
+        ConnectionProvider provider = providers.computeIfAbsent(service, name -> ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .build());
+        HttpClient httpClient = HttpClient.create(provider)
+                .keepAlive(pool.isKeepAlive())
+                .compress(pool.isCompression());
+        if (pool.isH2c()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return builder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(metrics)
+                .filter(loadBalancerFunction)
+                .build();
+    }
+
+    @PreDestroy
+    public void dispose() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+}
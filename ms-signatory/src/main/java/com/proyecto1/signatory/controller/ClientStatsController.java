@@ -0,0 +1,37 @@
+package com.proyecto1.signatory.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.proyecto1.signatory.client.CustomerClient;
+import com.proyecto1.signatory.client.ProductClient;
+import com.proyecto1.signatory.client.TransactionClient;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/signatory/clients")
+public class ClientStatsController {
+
+    @Autowired
+    CustomerClient customerClient;
+    @Autowired
+    ProductClient productClient;
+    @Autowired
+    TransactionClient transactionClient;
+
+    // Peticiones recibidas, llamadas reales y porcentaje deduplicado por cliente
+    @GetMapping("/stats")
+    public Mono<Map<String, Map<String, Object>>> getStats(){
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("customerClient", customerClient.getSingleFlight().stats());
+        stats.put("productClient", productClient.getSingleFlight().stats());
+        stats.put("transactionClient", transactionClient.getSingleFlight().stats());
+        return Mono.just(stats);
+    }
+}
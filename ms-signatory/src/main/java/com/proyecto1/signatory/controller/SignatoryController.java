@@ -1,12 +1,18 @@
 package com.proyecto1.signatory.controller;
 
+import com.proyecto1.signatory.dto.KeysetPage;
 import com.proyecto1.signatory.entity.Signatory;
 import com.proyecto1.signatory.service.SignatoryService;
 
 import com.proyecto1.signatory.service.impl.SignatoryServiceImpl;
+
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,10 +24,15 @@ public class SignatoryController {
     @Autowired
     private SignatoryService signatoryService;
 
-    @GetMapping("/findAll")
-    public Flux<Signatory> getSignatories(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Signatory>>> getSignatories(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call FindAll - signatory");
-        return signatoryService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(signatoryService.findAll()));
+        }
+        return signatoryService.findPage(after, limit).map(KeysetPage::toResponse);
     }
 
     @GetMapping("/find/{id}")
@@ -30,6 +41,18 @@ public class SignatoryController {
         return signatoryService.findById(id);
     }
 
+    @GetMapping(value = "/findByTransactionId/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Signatory> getSignatoriesByTransactionId(@PathVariable String id){
+        log.info("Service call FindByTransactionId - signatory");
+        return signatoryService.findByTransactionId(id);
+    }
+
+    @GetMapping(value = "/findByTransactionIds", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Signatory> getSignatoriesByTransactionIds(@RequestParam List<String> ids){
+        log.info("Service call FindByTransactionIds - signatory");
+        return signatoryService.findByTransactionIds(ids);
+    }
+
     @PostMapping("/create")
     public Mono<Signatory> createSignatory(@RequestBody Signatory c){
         log.info("Service call Create - signatory");
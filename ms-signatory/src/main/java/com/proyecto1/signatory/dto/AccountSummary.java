@@ -0,0 +1,22 @@
+package com.proyecto1.signatory.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Datos minimos de una cuenta para validar una operacion, sin listas de movimientos
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountSummary {
+
+    private String id;
+    private BigDecimal creditLimit;
+    private int indProduct;
+    private int typeProduct;
+    private int typeCustomer;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "schema_sig.signatories")
@@ -19,5 +20,6 @@ public class Signatory {
     private String name;
     private String lastName;
     private String docNumber;
+    @Indexed
     private String transactionId;
 }
@@ -1,10 +1,18 @@
 package com.proyecto1.signatory.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 
 import com.proyecto1.signatory.entity.Signatory;
 
+import reactor.core.publisher.Flux;
+
 @Repository
 public interface SignatoryRepository extends ReactiveCrudRepository<Signatory, String> {
+
+    Flux<Signatory> findByTransactionId(String transactionId);
+
+    Flux<Signatory> findByTransactionIdIn(Collection<String> transactionIds);
 }
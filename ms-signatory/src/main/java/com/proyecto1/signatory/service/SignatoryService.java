@@ -1,7 +1,10 @@
 package com.proyecto1.signatory.service;
 
+import com.proyecto1.signatory.dto.KeysetPage;
 import com.proyecto1.signatory.entity.Signatory;
 
+import java.util.List;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,10 +12,16 @@ public interface SignatoryService {
 
     Flux<Signatory> findAll();
 
+    Mono<KeysetPage<Signatory>> findPage(String after, Integer limit);
+
     Mono<Signatory> create(Signatory c);
 
     Mono<Signatory> findById(String id);
 
+    Flux<Signatory> findByTransactionId(String id);
+
+    Flux<Signatory> findByTransactionIds(List<String> ids);
+
     Mono<Signatory> update(Signatory c, String id);
 
     Mono<Signatory> delete(String id);
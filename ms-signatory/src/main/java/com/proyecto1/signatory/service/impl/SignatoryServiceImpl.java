@@ -1,6 +1,11 @@
 package com.proyecto1.signatory.service.impl;
 
 import com.proyecto1.signatory.client.TransactionClient;
+import com.proyecto1.signatory.config.KeysetPager;
+import com.proyecto1.signatory.dto.KeysetPage;
+
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +26,9 @@ public class SignatoryServiceImpl implements SignatoryService {
     @Autowired
     SignatoryRepository signatoryRepository;
 
+    @Autowired
+    KeysetPager keysetPager;
+
     @Autowired
     TransactionClient transactionClient;
 
@@ -30,13 +38,19 @@ public class SignatoryServiceImpl implements SignatoryService {
         return signatoryRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Signatory>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - signatory");
+        return keysetPager.page(Signatory.class, after, limit, Signatory::getId);
+    }
+
     @Override
     public Mono<Signatory> create(Signatory c) {
         log.info("Method call Create - signatory");
 
-        return transactionClient.getAccountWithDetails(c.getTransactionId())
-                .filter( x -> x.getProduct().getIndProduct() == 1)
-                .filter(z -> z.getCustomer().getTypeCustomer() == 2)
+        return transactionClient.getAccountSummary(c.getTransactionId())
+                .filter( x -> x.getIndProduct() == 1)
+                .filter(z -> z.getTypeCustomer() == 2)
                 .hasElement()
                 .flatMap( y -> {
                     if(y){
@@ -53,6 +67,18 @@ public class SignatoryServiceImpl implements SignatoryService {
         return signatoryRepository.findById(id);
     }
 
+    @Override
+    public Flux<Signatory> findByTransactionId(String id) {
+        log.info("Method call findByTransactionId - signatory");
+        return signatoryRepository.findByTransactionId(id);
+    }
+
+    @Override
+    public Flux<Signatory> findByTransactionIds(List<String> ids) {
+        log.info("Method call findByTransactionIds - signatory");
+        return signatoryRepository.findByTransactionIdIn(ids);
+    }
+
     @Override
     public Mono<Signatory> update(Signatory c, String id) {
         log.info("Method call Update - signatory");
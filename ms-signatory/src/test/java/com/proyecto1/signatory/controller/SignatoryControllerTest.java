@@ -18,6 +18,9 @@ import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.mockito.Mockito.times;
 
 @ExtendWith(SpringExtension.class)
@@ -96,6 +99,49 @@ public class SignatoryControllerTest {
         Mockito.verify(signatoryService,times(1)).findAll();
     }
 
+    @Test
+    void findByTransactionId() {
+        Signatory signatory = Signatory.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+
+        Mockito.when(signatoryService.findByTransactionId("342873574h")).thenReturn(Flux.just(signatory));
+
+        webTestClient.get()
+                .uri("/signatory/findByTransactionId/{id}", "342873574h")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].transactionId").isEqualTo("342873574h");
+
+        Mockito.verify(signatoryService,times(1)).findByTransactionId("342873574h");
+    }
+
+    @Test
+    void findByTransactionIds() {
+        Signatory signatory = Signatory.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+        List<String> ids = Arrays.asList("342873574h", "6767668789fds9");
+
+        Mockito.when(signatoryService.findByTransactionIds(ids)).thenReturn(Flux.just(signatory));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/signatory/findByTransactionIds")
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Signatory.class).hasSize(1);
+
+        Mockito.verify(signatoryService,times(1)).findByTransactionIds(ids);
+    }
+
     @Test
      void FindById() {
 
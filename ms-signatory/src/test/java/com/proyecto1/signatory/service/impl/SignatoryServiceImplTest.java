@@ -3,6 +3,7 @@ package com.proyecto1.signatory.service.impl;
 import com.proyecto1.signatory.client.CustomerClient;
 import com.proyecto1.signatory.client.ProductClient;
 import com.proyecto1.signatory.client.TransactionClient;
+import com.proyecto1.signatory.dto.AccountSummary;
 import com.proyecto1.signatory.entity.Customer;
 import com.proyecto1.signatory.entity.Product;
 import com.proyecto1.signatory.entity.Signatory;
@@ -80,7 +81,15 @@ public class SignatoryServiceImplTest {
         transaction.setProduct(product);
 
 
-        Mockito.when(transactionClient.getAccountWithDetails(transaction.getId())).thenReturn(Mono.just(transaction));
+        AccountSummary summary = AccountSummary.builder()
+                .id(transaction.getId())
+                .creditLimit(transaction.getCreditLimit())
+                .indProduct(product.getIndProduct())
+                .typeProduct(product.getTypeProduct())
+                .typeCustomer(customer.getTypeCustomer())
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(transaction.getId())).thenReturn(Mono.just(summary));
         Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
         Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
         Mockito.when(signatoryRepository.save(Mockito.any())).thenReturn(Mono.just(signatoryMono));
@@ -6,23 +6,30 @@ import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFac
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.proyecto1.transaction.config.NearCache;
+import com.proyecto1.transaction.config.NearCacheProperties;
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Customer;
 
-import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
 
 @Component
-@RequiredArgsConstructor
 public class CustomerClient {
 
-    private WebClient client = WebClient.create("http://customer-service:9002/customer");
+    private final WebClient client;
     private final ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory;
+    private final NearCache<Customer> cache;
 
+    public CustomerClient(WebClientFactory webClientFactory, ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory,
+            NearCacheProperties nearCacheProperties) {
+        this.client = webClientFactory.create("customer-service", "http://customer-service/customer");
+        this.reactiveCircuitBreakerFactory = reactiveCircuitBreakerFactory;
+        this.cache = new NearCache<>(nearCacheProperties.specFor("customer"), this::fetchCustomer);
+    }
+
+    // El fallback del circuit breaker queda fuera de la cache para no guardar el cliente de prueba
     public Mono<Customer> getCustomer(String id){
-        return client.get()
-                .uri("/find/"+id)
-                .retrieve()
-                .bodyToMono(Customer.class)
+        return cache.get(id)
                 .transform( it -> {
                     ReactiveCircuitBreaker rcb = reactiveCircuitBreakerFactory.create("customer-service-client");
 
@@ -35,4 +42,19 @@ public class CustomerClient {
                     nCustomer.setDescTypeCustomer("PERSONAL");return rcb.run(it, throwable -> Mono.just(nCustomer));
                 });
       };
+
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    public NearCache<Customer> getCache() {
+        return cache;
+    }
+
+    private Mono<Customer> fetchCustomer(String id) {
+        return client.get()
+                .uri("/find/"+id)
+                .retrieve()
+                .bodyToMono(Customer.class);
+    }
 }
@@ -1,7 +1,12 @@
 package com.proyecto1.transaction.client;
 
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Customer;
 import com.proyecto1.transaction.entity.Deposit;
+
+import java.util.Collection;
+
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
@@ -9,11 +14,37 @@ import reactor.core.publisher.Mono;
 
 @Component
 public class DepositClient {
-    private WebClient client = WebClient.create("http://deposit-service:9005/deposit");
+    private final WebClient client;
+
+    public DepositClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("deposit-service", "http://deposit-service/deposit");
+    }
 
     public Flux<Deposit> getDeposit(){
         return client.get()
                 .uri("/findAll")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Deposit.class);
+    }
+
+    public Flux<Deposit> getDepositByTransactionId(String transactionId){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionId/{id}")
+                        .build(transactionId))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Deposit.class);
+    }
+
+    public Flux<Deposit> getDepositByTransactionIds(Collection<String> transactionIds){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionIds")
+                        .queryParam("ids", transactionIds)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
                 .retrieve()
                 .bodyToFlux(Deposit.class);
     }
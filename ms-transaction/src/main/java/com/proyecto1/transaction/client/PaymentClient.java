@@ -1,18 +1,49 @@
 package com.proyecto1.transaction.client;
 
 
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Payment;
+
+import java.util.Collection;
+
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 
 @Component
 public class PaymentClient {
-    private WebClient client = WebClient.create("http://payment-service:9006/payment");
+    private final WebClient client;
+
+    public PaymentClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("payment-service", "http://payment-service/payment");
+    }
 
     public Flux<Payment> getPayment(){
         return client.get()
                 .uri("/findAll")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Payment.class);
+    }
+
+    public Flux<Payment> getPaymentByTransactionId(String transactionId){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionId/{id}")
+                        .build(transactionId))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Payment.class);
+    }
+
+    public Flux<Payment> getPaymentByTransactionIds(Collection<String> transactionIds){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionIds")
+                        .queryParam("ids", transactionIds)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
                 .retrieve()
                 .bodyToFlux(Payment.class);
     }
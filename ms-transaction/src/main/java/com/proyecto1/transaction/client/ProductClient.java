@@ -3,6 +3,9 @@ package com.proyecto1.transaction.client;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.proyecto1.transaction.config.NearCache;
+import com.proyecto1.transaction.config.NearCacheProperties;
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Product;
 
 import reactor.core.publisher.Mono;
@@ -10,9 +13,27 @@ import reactor.core.publisher.Mono;
 @Component
 public class ProductClient {
 	
-	private WebClient product = WebClient.create("http://product-service:9003/product");
+	private final WebClient product;
+	private final NearCache<Product> cache;
+
+    public ProductClient(WebClientFactory webClientFactory, NearCacheProperties nearCacheProperties) {
+        this.product = webClientFactory.create("product-service", "http://product-service/product");
+        this.cache = new NearCache<>(nearCacheProperties.specFor("product"), this::fetchProduct);
+    }
 
     public Mono<Product> getProduct(String id){
+        return cache.get(id);
+    }
+
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    public NearCache<Product> getCache() {
+        return cache;
+    }
+
+    private Mono<Product> fetchProduct(String id){
     	return product.get()
                 .uri("/find/"+id)
                 /*.uri(uriBuilder -> uriBuilder
@@ -1,18 +1,49 @@
 package com.proyecto1.transaction.client;
 
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Purchase;
 import com.proyecto1.transaction.entity.Withdrawal;
+
+import java.util.Collection;
+
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 
 @Component
 public class PurchaseClient {
-    private WebClient client = WebClient.create("http://purchase-service:9007/purchase");
+    private final WebClient client;
+
+    public PurchaseClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("purchase-service", "http://purchase-service/purchase");
+    }
 
     public Flux<Purchase> getPurchase(){
         return client.get()
                 .uri("/findAll")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Purchase.class);
+    }
+
+    public Flux<Purchase> getPurchaseByTransactionId(String transactionId){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionId/{id}")
+                        .build(transactionId))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Purchase.class);
+    }
+
+    public Flux<Purchase> getPurchaseByTransactionIds(Collection<String> transactionIds){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionIds")
+                        .queryParam("ids", transactionIds)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
                 .retrieve()
                 .bodyToFlux(Purchase.class);
     }
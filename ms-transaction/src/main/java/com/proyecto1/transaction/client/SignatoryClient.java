@@ -1,16 +1,47 @@
 package com.proyecto1.transaction.client;
 
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Signatory;
+
+import java.util.Collection;
+
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 @Component
 public class SignatoryClient {
-    private WebClient client = WebClient.create("http://signatory-service:9008/signatory");
+    private final WebClient client;
+
+    public SignatoryClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("signatory-service", "http://signatory-service/signatory");
+    }
 
     public Flux<Signatory> getSignatory(){
         return client.get()
                 .uri("/findAll")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Signatory.class);
+    }
+
+    public Flux<Signatory> getSignatoryByTransactionId(String transactionId){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionId/{id}")
+                        .build(transactionId))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Signatory.class);
+    }
+
+    public Flux<Signatory> getSignatoryByTransactionIds(Collection<String> transactionIds){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionIds")
+                        .queryParam("ids", transactionIds)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
                 .retrieve()
                 .bodyToFlux(Signatory.class);
     }
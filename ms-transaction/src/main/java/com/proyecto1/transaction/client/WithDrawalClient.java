@@ -1,18 +1,49 @@
 package com.proyecto1.transaction.client;
 
 
+import com.proyecto1.transaction.config.WebClientFactory;
 import com.proyecto1.transaction.entity.Withdrawal;
+
+import java.util.Collection;
+
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 
 @Component
 public class WithDrawalClient {
-    private WebClient client = WebClient.create("http://withdrawal-service:9009/withdrawal");
+    private final WebClient client;
+
+    public WithDrawalClient(WebClientFactory webClientFactory) {
+        this.client = webClientFactory.create("withdrawal-service", "http://withdrawal-service/withdrawal");
+    }
 
     public Flux<Withdrawal> getWithDrawal(){
         return client.get()
                 .uri("/findAll")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Withdrawal.class);
+    }
+
+    public Flux<Withdrawal> getWithDrawalByTransactionId(String transactionId){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionId/{id}")
+                        .build(transactionId))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Withdrawal.class);
+    }
+
+    public Flux<Withdrawal> getWithDrawalByTransactionIds(Collection<String> transactionIds){
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/findByTransactionIds")
+                        .queryParam("ids", transactionIds)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
                 .retrieve()
                 .bodyToFlux(Withdrawal.class);
     }
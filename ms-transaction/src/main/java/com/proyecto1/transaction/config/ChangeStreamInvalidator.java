@@ -0,0 +1,194 @@
+package com.proyecto1.transaction.config;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoServerException;
+import com.mongodb.client.model.changestream.OperationType;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// Sigue los change streams de las colecciones configuradas e invalida las caches suscritas a cada fuente.
+// Al reconectar continua desde el ultimo resume token, asi las caches pueden usar TTL largos sin servir datos viejos.
+@Component
+@ConditionalOnProperty(prefix = "transaction.invalidation", name = "enabled", havingValue = "true")
+public class ChangeStreamInvalidator {
+
+    private static final Logger log = LogManager.getLogger(ChangeStreamInvalidator.class);
+    private static final List<String> OPERATIONS = List.of("update", "replace", "delete", "drop", "rename", "dropDatabase");
+    // Codigos con los que el servidor rechaza un token que ya salio del oplog
+    private static final Set<Integer> HISTORY_LOST = Set.of(136, 260, 280, 286);
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    ChangeStreamProperties properties;
+
+    private final Map<String, List<InvalidationListener>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, String> resumeTokens = new ConcurrentHashMap<>();
+    private final List<Disposable> subscriptions = new ArrayList<>();
+
+    public void subscribe(String source, InvalidationListener listener) {
+        listeners.computeIfAbsent(source, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        properties.getCollections().forEach((source, collection) -> {
+            if (!listeners.containsKey(source)) {
+                return;
+            }
+            log.info("Watching " + collection + " for cache invalidation - " + source);
+            subscriptions.add(loadToken(source)
+                    .doOnNext(token -> resumeTokens.put(source, token))
+                    .thenMany(watch(source, collection))
+                    .subscribe(null, e -> log.error("Change stream stopped - " + source + ": " + e.getMessage())));
+        });
+    }
+
+    // limitRate acota lo que se lee del cursor; las caches se invalidan antes de pedir el siguiente lote.
+    // El token se guarda cada tokenSaveInterval y no por evento
+    private Flux<String> watch(String source, String collection) {
+        return Flux.defer(() -> changes(collection, resumeTokens.get(source)))
+                .limitRate(properties.getBatchSize())
+                .doOnNext(event -> handle(source, event))
+                .repeatWhen(completed -> completed.delayElements(properties.getRetryBackoff()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getRetryBackoff())
+                        .maxBackoff(properties.getMaxRetryBackoff())
+                        .doBeforeRetry(signal -> recover(source, signal.failure())))
+                .sample(properties.getTokenSaveInterval())
+                .concatMap(event -> saveToken(source).thenReturn(source));
+    }
+
+    private Flux<ChangeStreamEvent<Document>> changes(String collection, String token) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .filter(Aggregation.newAggregation(Aggregation.match(Criteria.where("operationType").in(OPERATIONS))));
+        if (token != null) {
+            options.resumeAfter(new BsonDocument("_data", new BsonString(token)));
+        }
+        return mongoTemplate.changeStream(collection, options.build(), Document.class);
+    }
+
+    private void handle(String source, ChangeStreamEvent<Document> event) {
+        String id = event.getRaw() == null ? null : idOf(event.getRaw().getDocumentKey());
+        dispatch(source, event.getOperationType(), id);
+        // Tras un invalidate el stream se cierra; se vuelve a abrir sin token porque las caches ya se vaciaron
+        if (event.getOperationType() == OperationType.INVALIDATE) {
+            resumeTokens.remove(source);
+        } else {
+            String token = tokenOf(event.getResumeToken());
+            if (token != null) {
+                resumeTokens.put(source, token);
+            }
+        }
+    }
+
+    void dispatch(String source, OperationType operation, String id) {
+        boolean all = operation == null || id == null;
+        for (InvalidationListener listener : listeners.getOrDefault(source, List.of())) {
+            try {
+                if (all) {
+                    listener.invalidateAll();
+                } else {
+                    listener.invalidate(id);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation failed - " + source + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Sin token, o con un token que ya no esta en el oplog, no se sabe que cambio mientras el stream estuvo caido
+    private void recover(String source, Throwable failure) {
+        if (failure instanceof MongoServerException && HISTORY_LOST.contains(((MongoServerException) failure).getCode())) {
+            resumeTokens.remove(source);
+        }
+        log.warn("Change stream interrupted, resuming - " + source + ": " + failure.getMessage());
+        if (!resumeTokens.containsKey(source)) {
+            dispatch(source, null, null);
+        }
+    }
+
+    private Mono<String> loadToken(String source) {
+        return mongoTemplate.findOne(tokenQuery(source), Document.class, properties.getTokenCollection())
+                .mapNotNull(document -> document.getString("token"))
+                .onErrorResume(e -> {
+                    log.warn("Resume token could not be read - " + source + ": " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> saveToken(String source) {
+        String token = resumeTokens.get(source);
+        Mono<?> write = token == null
+                ? mongoTemplate.remove(tokenQuery(source), properties.getTokenCollection())
+                : mongoTemplate.upsert(tokenQuery(source), Update.update("token", token).set("updatedAt", new Date()),
+                        properties.getTokenCollection());
+        return write.then()
+                .onErrorResume(e -> {
+                    log.warn("Resume token could not be saved - " + source + ": " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Query tokenQuery(String source) {
+        return Query.query(Criteria.where("_id").is(properties.getConsumer() + ":" + source));
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static String tokenOf(Object resumeToken) {
+        if (resumeToken instanceof BsonDocument && ((BsonDocument) resumeToken).isString("_data")) {
+            return ((BsonDocument) resumeToken).getString("_data").getValue();
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.forEach(Disposable::dispose);
+        Flux.fromIterable(resumeTokens.keySet())
+                .concatMap(this::saveToken)
+                .then()
+                .block(properties.getRetryBackoff().multipliedBy(5));
+    }
+}
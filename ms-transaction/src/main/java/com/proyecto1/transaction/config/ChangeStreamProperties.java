@@ -0,0 +1,40 @@
+package com.proyecto1.transaction.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transaction.invalidation")
+public class ChangeStreamProperties {
+
+    // Los change streams requieren que Mongo corra como replica set
+    private boolean enabled = false;
+
+    // Fuente -> coleccion observada; solo se abre el change stream de las fuentes con caches suscritas
+    private Map<String, String> collections = defaultCollections();
+
+    // Donde se guarda el ultimo resume token de cada fuente, por consumidor
+    private String tokenCollection = "schema_account.resume_token";
+    private String consumer = "transaction-service";
+    private Duration tokenSaveInterval = Duration.ofSeconds(5);
+
+    // Eventos pedidos al cursor por vez; no se piden mas hasta que las caches procesan los anteriores
+    private int batchSize = 256;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofMinutes(1);
+
+    private static Map<String, String> defaultCollections() {
+        Map<String, String> collections = new LinkedHashMap<>();
+        collections.put("customer", "schema_people.customer");
+        collections.put("product", "schema_prod.product");
+        collections.put("transaction", "schema_account.transaction");
+        return collections;
+    }
+}
@@ -0,0 +1,34 @@
+package com.proyecto1.transaction.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transaction.detail")
+public class DetailProperties {
+
+    // Llamadas simultaneas permitidas al armar el detalle de una cuenta
+    private int maxConcurrency = 7;
+
+    // Tiempo maximo por rama; se puede sobrescribir por nombre (customer, product, deposit, ...)
+    private Duration timeout = Duration.ofSeconds(2);
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    // Si una lista de movimientos del detalle de una cuenta falla o vence, se responde con la lista vacia.
+    // No aplica a la posicion del cliente, donde un total incompleto hace fallar la consulta
+    private boolean partialResults = true;
+
+    // Ids de cuenta por llamada al pedir movimientos de varias cuentas (findByTransactionIds)
+    private int idsPerRequest = 50;
+
+    public Duration timeoutFor(String branch) {
+        return timeouts.getOrDefault(branch, timeout);
+    }
+}
@@ -0,0 +1,10 @@
+package com.proyecto1.transaction.config;
+
+// Cache que recibe las invalidaciones de ChangeStreamInvalidator
+public interface InvalidationListener {
+
+    void invalidate(String id);
+
+    // Se llama cuando ya no se puede saber que documentos cambiaron (coleccion eliminada, historial perdido)
+    void invalidateAll();
+}
@@ -0,0 +1,142 @@
+package com.proyecto1.transaction.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.proyecto1.transaction.client.DepositClient;
+import com.proyecto1.transaction.client.PaymentClient;
+import com.proyecto1.transaction.client.PurchaseClient;
+import com.proyecto1.transaction.client.WithDrawalClient;
+import com.proyecto1.transaction.entity.Deposit;
+import com.proyecto1.transaction.entity.Payment;
+import com.proyecto1.transaction.entity.Purchase;
+import com.proyecto1.transaction.entity.Transaction;
+import com.proyecto1.transaction.entity.Withdrawal;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// Completa los campos materializados de las cuentas creadas antes de que existieran:
+// pasa availableBalance a Decimal128, inicia version y calcula total de compras y movimientos.
+// Las cuentas completadas quedan marcadas con materialized; si algo falla se reintenta hasta terminar.
+@Component
+public class MaterializedFieldsBackfill {
+
+    private static final Logger log = LogManager.getLogger(MaterializedFieldsBackfill.class);
+    private static final int BATCH_SIZE = 100;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    DepositClient depositClient;
+
+    @Autowired
+    WithDrawalClient withDrawalClient;
+
+    @Autowired
+    PaymentClient paymentClient;
+
+    @Autowired
+    PurchaseClient purchaseClient;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Mono.defer(this::run)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, RETRY_DELAY)
+                        .maxBackoff(MAX_RETRY_DELAY)
+                        .doBeforeRetry(signal -> log.warn("Materialized fields backfill will retry - transaction: "
+                                + signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    // Una pasada completa; termina con error si quedan cuentas sin completar para que se reintente
+    Mono<Void> run() {
+        String collection = mongoTemplate.getCollectionName(Transaction.class);
+        return convertBalances(collection)
+                .then(mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                        Update.update("version", 0L), collection))
+                .thenMany(mongoTemplate.find(Query.query(Criteria.where("materialized").ne(true)), Transaction.class))
+                .buffer(BATCH_SIZE)
+                .concatMap(this::fillTotals)
+                .collect(Collectors.partitioningBy(filled -> filled, Collectors.counting()))
+                .flatMap(result -> {
+                    if (result.get(true) > 0) {
+                        log.info("Materialized fields filled for " + result.get(true) + " accounts - transaction");
+                    }
+                    long pending = result.get(false);
+                    return pending == 0 ? Mono.empty()
+                            : Mono.error(new IllegalStateException(pending + " accounts changed while being filled"));
+                });
+    }
+
+    // En cada reintento se consulta primero si quedan saldos como texto, para no repetir el updateMany
+    private Mono<Void> convertBalances(String collection) {
+        Document stringBalance = new Document("availableBalance", new Document("$type", "string"));
+        List<Document> pipeline = Arrays.asList(new Document("$set",
+                new Document("availableBalance", new Document("$toDecimal", "$availableBalance"))));
+        return mongoTemplate.getCollection(collection)
+                .filterWhen(c -> Mono.from(c.find(stringBalance).limit(1)).hasElement())
+                .flatMap(c -> Mono.from(c.updateMany(stringBalance, pipeline)))
+                .then();
+    }
+
+    // Los totales se recalculan desde los movimientos aunque la cuenta ya tenga valores, porque pudieron
+    // quedar incompletos. El filtro por version descarta la escritura si la cuenta recibio un movimiento
+    // despues de leerla; esa cuenta queda pendiente para la siguiente pasada.
+    private Flux<Boolean> fillTotals(List<Transaction> accounts) {
+        List<String> ids = accounts.stream().map(Transaction::getId).collect(Collectors.toList());
+        return Mono.zip(
+                        depositClient.getDepositByTransactionIds(ids).collectMultimap(Deposit::getTransactionId),
+                        withDrawalClient.getWithDrawalByTransactionIds(ids).collectMultimap(Withdrawal::getTransactionId),
+                        paymentClient.getPaymentByTransactionIds(ids).collectMultimap(Payment::getTransactionId),
+                        purchaseClient.getPurchaseByTransactionIds(ids).collectMultimap(Purchase::getTransactionId))
+                .flatMapMany(children -> Flux.fromIterable(accounts)
+                        .concatMap(account -> {
+                            String id = account.getId();
+                            BigDecimal totalPurchases = children.getT4().getOrDefault(id, List.of()).stream()
+                                    .map(Purchase::getPurchaseAmount)
+                                    .filter(amount -> amount != null)
+                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+                            long movementCount = count(children.getT1(), id) + count(children.getT2(), id)
+                                    + count(children.getT3(), id) + count(children.getT4(), id);
+                            return mongoTemplate.updateFirst(
+                                    Query.query(Criteria.where("_id").is(id)
+                                            .and("materialized").ne(true)
+                                            .and("version").is(account.getVersion())),
+                                    new Update().set("totalPurchases", new Decimal128(totalPurchases))
+                                            .set("movementCount", movementCount)
+                                            .set("materialized", true)
+                                            .inc("version", 1),
+                                    Transaction.class)
+                                    .map(result -> result.getModifiedCount() > 0)
+                                    .onErrorReturn(OptimisticLockingFailureException.class, false);
+                        }));
+    }
+
+    private static long count(Map<String, ? extends Collection<?>> children, String id) {
+        return children.containsKey(id) ? children.get(id).size() : 0;
+    }
+}
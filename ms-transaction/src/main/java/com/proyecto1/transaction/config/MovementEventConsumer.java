@@ -0,0 +1,116 @@
+package com.proyecto1.transaction.config;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto1.transaction.dto.MovementEvent;
+import com.proyecto1.transaction.service.TransactionService;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+import reactor.util.retry.Retry;
+
+// Aplica los eventos de movimientos publicados en Kafka. Se procesan en orden y de a uno:
+// el siguiente registro no se pide hasta confirmar el anterior, asi el consumo sigue el ritmo de Mongo
+@Component
+@ConditionalOnProperty(prefix = "transaction.events", name = "broker", havingValue = "kafka")
+public class MovementEventConsumer {
+
+    private static final Logger log = LogManager.getLogger(MovementEventConsumer.class);
+    private static final Duration MAX_DEAD_LETTER_BACKOFF = Duration.ofMinutes(1);
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    MovementEventProperties properties;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    KafkaSender<String, String> deadLetterSender;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Map<String, Object> config = new HashMap<>(properties.getKafka());
+        config.putIfAbsent(ConsumerConfig.GROUP_ID_CONFIG, "transaction-service");
+        config.putIfAbsent(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        ReceiverOptions<String, String> options = ReceiverOptions.<String, String>create(config)
+                .subscription(Collections.singleton(properties.getTopic()));
+        Map<String, Object> producer = new HashMap<>(properties.getKafka());
+        producer.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producer.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producer.put(ProducerConfig.ACKS_CONFIG, "all");
+        deadLetterSender = KafkaSender.create(SenderOptions.create(producer));
+        subscription = KafkaReceiver.create(options)
+                .receive()
+                .concatMap(this::apply)
+                .subscribe(null, e -> log.error("Movement event consumer stopped - transaction: " + e.getMessage()));
+    }
+
+    // El offset se confirma solo cuando el evento se aplico o quedo guardado en el topic de fallidos
+    Mono<Void> apply(ReceiverRecord<String, String> record) {
+        return Mono.fromCallable(() -> objectMapper.readValue(record.value(), MovementEvent.class))
+                .flatMap(event -> transactionService.applyMovement(event.getTransactionId(), event.toMovement())
+                        .retryWhen(Retry.backoff(properties.getRetries(), properties.getRetryBackoff())
+                                .onRetryExhaustedThrow((spec, signal) -> signal.failure())))
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Movement event " + record.key() + "@" + record.offset() + " sent to "
+                            + properties.getDeadLetterTopic() + " - transaction: " + e.getMessage());
+                    return deadLetter(record, e);
+                })
+                .then(Mono.fromRunnable(() -> record.receiverOffset().acknowledge()));
+    }
+
+    // Si tampoco se puede publicar en el DLT se reintenta sin confirmar: el consumo se detiene en este
+    // registro en lugar de perder el movimiento
+    private Mono<Void> deadLetter(ReceiverRecord<String, String> record, Throwable error) {
+        ProducerRecord<String, String> dead = new ProducerRecord<>(properties.getDeadLetterTopic(), record.key(), record.value());
+        dead.headers()
+                .add("x-original-topic", record.topic().getBytes(StandardCharsets.UTF_8))
+                .add("x-original-offset", String.valueOf(record.offset()).getBytes(StandardCharsets.UTF_8))
+                .add("x-exception-message", String.valueOf(error.getMessage()).getBytes(StandardCharsets.UTF_8));
+        return Mono.defer(() -> deadLetterSender.send(Mono.just(SenderRecord.create(dead, record.key()))).then())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getRetryBackoff()).maxBackoff(MAX_DEAD_LETTER_BACKOFF));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (deadLetterSender != null) {
+            deadLetterSender.close();
+        }
+    }
+}
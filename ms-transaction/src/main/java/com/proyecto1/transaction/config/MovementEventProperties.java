@@ -0,0 +1,27 @@
+package com.proyecto1.transaction.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transaction.events")
+public class MovementEventProperties {
+
+    // http: los servicios de movimientos entregan los eventos en /applyMovement
+    // kafka: se consumen del topic con las propiedades de kafka (bootstrap.servers, group.id, ...)
+    private String broker = "http";
+    private String topic = "account-movements";
+    private Map<String, String> kafka = new HashMap<>();
+
+    // Reintentos por evento antes de pasarlo al topic de fallidos y seguir con el siguiente
+    private int retries = 3;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private String deadLetterTopic = "account-movements.DLT";
+}
@@ -0,0 +1,69 @@
+package com.proyecto1.transaction.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import reactor.core.publisher.Mono;
+
+// Cache en memoria con carga asincrona: las lecturas simultaneas de una misma clave comparten una sola carga
+public class NearCache<T> implements InvalidationListener {
+
+    private final Function<String, Mono<T>> loader;
+    private final AsyncLoadingCache<String, T> cache;
+
+    public NearCache(NearCacheProperties.Spec spec, Function<String, Mono<T>> loader) {
+        this.loader = loader;
+        this.cache = spec.isEnabled() ? Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .refreshAfterWrite(spec.getRefreshAfterWrite())
+                .recordStats()
+                .buildAsync((key, executor) -> loader.apply(key).toFuture()) : null;
+    }
+
+    // Una carga vacia o con error no queda en cache. Se usa una copia del future para que
+    // cancelar una lectura (p. ej. por timeout) no cancele la carga que comparten las demas.
+    public Mono<T> get(String id) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        return Mono.fromFuture(() -> cache.get(id).copy());
+    }
+
+    @Override
+    public void invalidate(String id) {
+        if (cache != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (cache == null) {
+            stats.put("enabled", false);
+            return stats;
+        }
+        CacheStats cacheStats = cache.synchronous().stats();
+        stats.put("enabled", true);
+        stats.put("size", cache.synchronous().estimatedSize());
+        stats.put("hitCount", cacheStats.hitCount());
+        stats.put("missCount", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("loadSuccessCount", cacheStats.loadSuccessCount());
+        stats.put("loadFailureCount", cacheStats.loadFailureCount());
+        stats.put("evictionCount", cacheStats.evictionCount());
+        return stats;
+    }
+}
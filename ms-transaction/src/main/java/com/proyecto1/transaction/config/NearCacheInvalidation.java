@@ -0,0 +1,31 @@
+package com.proyecto1.transaction.config;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.proyecto1.transaction.client.CustomerClient;
+import com.proyecto1.transaction.client.ProductClient;
+
+// Suscribe las caches de clientes y productos a los cambios de sus colecciones
+@Component
+@ConditionalOnProperty(prefix = "transaction.invalidation", name = "enabled", havingValue = "true")
+public class NearCacheInvalidation {
+
+    @Autowired
+    ChangeStreamInvalidator changeStreamInvalidator;
+
+    @Autowired
+    CustomerClient customerClient;
+
+    @Autowired
+    ProductClient productClient;
+
+    @PostConstruct
+    public void subscribe() {
+        changeStreamInvalidator.subscribe("customer", customerClient.getCache());
+        changeStreamInvalidator.subscribe("product", productClient.getCache());
+    }
+}
@@ -0,0 +1,57 @@
+package com.proyecto1.transaction.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "transaction.cache")
+public class NearCacheProperties {
+
+    // Valores por defecto; se pueden sobrescribir por nombre de cache (customer, product).
+    // Lo que no se define para la cache se toma de defaults
+    private Spec defaults = new Spec();
+    private Map<String, SpecOverride> caches = new HashMap<>();
+
+    public Spec specFor(String name) {
+        SpecOverride override = caches.get(name);
+        if (override == null) {
+            return defaults;
+        }
+        Spec merged = new Spec();
+        merged.setEnabled(or(override.getEnabled(), defaults.isEnabled()));
+        merged.setMaximumSize(or(override.getMaximumSize(), defaults.getMaximumSize()));
+        merged.setExpireAfterWrite(or(override.getExpireAfterWrite(), defaults.getExpireAfterWrite()));
+        merged.setRefreshAfterWrite(or(override.getRefreshAfterWrite(), defaults.getRefreshAfterWrite()));
+        return merged;
+    }
+
+    private static <T> T or(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    @Data
+    public static class Spec {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        // Tiempo maximo que una entrada puede servirse sin volver a consultarse
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+        // A partir de este tiempo la siguiente lectura refresca la entrada en segundo plano
+        private Duration refreshAfterWrite = Duration.ofMinutes(1);
+    }
+
+    // Mismos campos que Spec, nulos cuando la cache no los define
+    @Data
+    public static class SpecOverride {
+        private Boolean enabled;
+        private Long maximumSize;
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+    }
+}
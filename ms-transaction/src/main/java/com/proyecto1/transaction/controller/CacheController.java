@@ -0,0 +1,53 @@
+package com.proyecto1.transaction.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.proyecto1.transaction.client.CustomerClient;
+import com.proyecto1.transaction.client.ProductClient;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/transaction/cache")
+public class CacheController {
+
+    private static final Logger log = LogManager.getLogger(CacheController.class);
+    @Autowired
+    CustomerClient customerClient;
+    @Autowired
+    ProductClient productClient;
+
+    // Lo llama ms-customer al actualizar o eliminar un cliente
+    @DeleteMapping("/customer/{id}")
+    public Mono<Void> evictCustomer(@PathVariable String id){
+        log.info("Service call evictCustomer - transaction");
+        customerClient.evict(id);
+        return Mono.empty();
+    }
+
+    // Lo llama ms-product al actualizar o eliminar un producto
+    @DeleteMapping("/product/{id}")
+    public Mono<Void> evictProduct(@PathVariable String id){
+        log.info("Service call evictProduct - transaction");
+        productClient.evict(id);
+        return Mono.empty();
+    }
+
+    @GetMapping("/stats")
+    public Mono<Map<String, Map<String, Object>>> getStats(){
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("customer", customerClient.getCache().stats());
+        stats.put("product", productClient.getCache().stats());
+        return Mono.just(stats);
+    }
+}
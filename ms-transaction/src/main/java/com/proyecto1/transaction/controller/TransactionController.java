@@ -1,10 +1,17 @@
 package com.proyecto1.transaction.controller;
 
+import com.proyecto1.transaction.dto.AccountSummary;
+import com.proyecto1.transaction.dto.CustomerPosition;
+import com.proyecto1.transaction.dto.KeysetPage;
+import com.proyecto1.transaction.dto.MovementDTO;
+import com.proyecto1.transaction.dto.ReservationDTO;
 import com.proyecto1.transaction.entity.Transaction;
 import com.proyecto1.transaction.service.TransactionService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,13 +24,18 @@ public class TransactionController {
     @Autowired
     TransactionService transactionService;
 
-    @GetMapping("/findAll")
-    public Flux<Transaction> getTransaction(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Transaction>>> getTransaction(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call FindAll - transaction");
-        return transactionService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(transactionService.findAll()));
+        }
+        return transactionService.findPage(after, limit).map(KeysetPage::toResponse);
     }
     
-    @GetMapping("/findAllWithDetail")
+    @GetMapping(value = "/findAllWithDetail", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     public Flux<Transaction> getTransactions(){
         log.info("Service call findAllWithDetail - transaction");
         return transactionService.findAllWithDetail();
@@ -39,12 +51,35 @@ public class TransactionController {
         log.info("Service call findWithCustomer - transaction");
         return transactionService.findByIdWithCustomer(id);
     }
+    @GetMapping("/findSummary/{id}")
+    public Mono<AccountSummary> getTransactionSummary(@PathVariable String id){
+        log.info("Service call findSummary - transaction");
+        return transactionService.findSummaryById(id);
+    }
+
+    @GetMapping("/findByCustomer/{customerId}/position")
+    public Mono<CustomerPosition> getCustomerPosition(@PathVariable String customerId){
+        log.info("Service call findPositionByCustomer - transaction");
+        return transactionService.findPositionByCustomerId(customerId);
+    }
     @PostMapping("/create")
     public Mono<Transaction> createTransaction(@RequestBody Transaction t){
         log.info("Service call Create - transaction");
         return transactionService.save(t);
     }
 
+    @PostMapping("/applyMovement/{id}")
+    public Mono<Transaction> applyMovement(@RequestBody MovementDTO movement, @PathVariable String id){
+        log.info("Service call ApplyMovement - transaction");
+        return transactionService.applyMovement(id, movement);
+    }
+
+    @PostMapping("/reservePurchase/{id}")
+    public Mono<Transaction> reservePurchase(@RequestBody ReservationDTO reservation, @PathVariable String id){
+        log.info("Service call ReservePurchase - transaction");
+        return transactionService.reservePurchase(id, reservation);
+    }
+
     @PutMapping("/update/{id}")
     public Mono<Transaction> updateTransaction(@RequestBody Transaction t, @PathVariable String id){
         log.info("Service call Update - transaction");
@@ -0,0 +1,26 @@
+package com.proyecto1.transaction.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.proyecto1.transaction.entity.Customer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Posicion consolidada de un cliente: totales por tipo de producto y totales generales
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerPosition {
+
+    private String customerId;
+    private Customer customer;
+    private List<ProductPosition> products;
+    private BigDecimal availableBalance;
+    private BigDecimal creditLimit;
+    private BigDecimal totalPurchases;
+}
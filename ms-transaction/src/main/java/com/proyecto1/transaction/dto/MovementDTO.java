@@ -0,0 +1,25 @@
+package com.proyecto1.transaction.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Movimiento registrado en ms-deposit, ms-withdrawal, ms-payment o ms-purchase.
+// amount negativo y count -1 revierten un movimiento eliminado.
+// eventId viene del outbox del servicio de origen y evita aplicar dos veces el mismo evento.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementDTO {
+
+    public enum Type { DEPOSIT, WITHDRAWAL, PAYMENT, PURCHASE }
+
+    private Type type;
+    private BigDecimal amount;
+    private int count;
+    private String eventId;
+}
@@ -0,0 +1,26 @@
+package com.proyecto1.transaction.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Evento de outbox publicado por los servicios de movimientos; id es el eventId del outbox
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementEvent {
+
+    private String id;
+    private String transactionId;
+    private MovementDTO.Type type;
+    private BigDecimal amount;
+    private int count;
+
+    public MovementDTO toMovement() {
+        return MovementDTO.builder().type(type).amount(amount).count(count).eventId(id).build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.proyecto1.transaction.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cuentas de un cliente agrupadas por producto, tal como salen de la agregacion
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductHolding {
+
+    @Id
+    private String productId;
+    private List<String> accountIds;
+    private BigDecimal availableBalance;
+    private BigDecimal creditLimit;
+    private BigDecimal totalPurchases;
+    private Long movementCount;
+}
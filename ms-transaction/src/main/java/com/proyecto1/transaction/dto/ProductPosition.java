@@ -0,0 +1,31 @@
+package com.proyecto1.transaction.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Totales de las cuentas del cliente que comparten tipo de producto
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPosition {
+
+    private int indProduct;
+    private String descIndProduct;
+    private int typeProduct;
+    private String descTypeProduct;
+    private List<String> accountIds;
+    private BigDecimal availableBalance;
+    private BigDecimal creditLimit;
+    private BigDecimal totalPurchases;
+    private BigDecimal depositTotal;
+    private BigDecimal withdrawalTotal;
+    private BigDecimal paymentTotal;
+    private BigDecimal purchaseTotal;
+    private long movementCount;
+}
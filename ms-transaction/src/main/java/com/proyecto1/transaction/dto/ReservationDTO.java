@@ -0,0 +1,20 @@
+package com.proyecto1.transaction.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Monto a reservar sobre el limite de credito. baseline es el total de compras a usar
+// si la cuenta todavia no tiene totalPurchases materializado.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationDTO {
+
+    private BigDecimal amount;
+    private BigDecimal baseline;
+}
@@ -1,6 +1,7 @@
 package com.proyecto1.transaction.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,7 +11,12 @@ import reactor.core.publisher.Mono;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.math.BigDecimal;
@@ -18,6 +24,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Document(collection = "schema_account.transaction")
+@CompoundIndex(name = "customer_product", def = "{'customerId': 1, 'productId': 1}")
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 @Data
 @Builder
@@ -28,12 +35,18 @@ public class Transaction {
     private String id;
 
     private String customerId;
+    @Indexed
     private String productId;
     private String depositId;
     private String accountNumber;
     private int movementLimit;
     private BigDecimal creditLimit;
+    // Saldo, total de compras y cantidad de movimientos se actualizan con $inc al registrar cada movimiento
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal availableBalance;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalPurchases;
+    private Long movementCount;
     private BigDecimal maintenanceCommission;
     private String cardNumber;
 
@@ -41,6 +54,17 @@ public class Transaction {
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate retirementDateFixedTerm;
 
+    @Version
+    private Long version;
+
+    // totalPurchases y movementCount ya son confiables: la cuenta se creo con ellos o el backfill los calculo
+    @JsonIgnore
+    private Boolean materialized;
+
+    // Ultimos eventos de movimiento aplicados, para descartar entregas repetidas
+    @JsonIgnore
+    private List<String> appliedEvents;
+
     @Transient
     private Customer customer;
     
@@ -1,9 +1,17 @@
 package com.proyecto1.transaction.repository;
 
 import com.proyecto1.transaction.entity.Transaction;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface TransactionRepository extends ReactiveCrudRepository<Transaction, String> {
+public interface TransactionRepository extends ReactiveCrudRepository<Transaction, String>, TransactionRepositoryCustom {
+
+    Mono<Boolean> existsByCustomerIdAndProductId(String customerId, String productId);
+
+    // Solo los campos que necesita el resumen de la cuenta
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'customerId': 1, 'productId': 1, 'creditLimit': 1, 'availableBalance': 1, 'totalPurchases': 1 }")
+    Mono<Transaction> findSummaryById(String id);
 }
@@ -0,0 +1,20 @@
+package com.proyecto1.transaction.repository;
+
+import java.math.BigDecimal;
+
+import com.proyecto1.transaction.dto.ProductHolding;
+import com.proyecto1.transaction.entity.Transaction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface TransactionRepositoryCustom {
+
+    Mono<Transaction> applyMovement(String id, BigDecimal balanceDelta, BigDecimal purchasesDelta, int countDelta, String eventId);
+
+    Mono<Transaction> reservePurchase(String id, BigDecimal amount, BigDecimal baseline);
+
+    Mono<Void> initVersion(String id);
+
+    Flux<ProductHolding> holdingsByCustomerId(String customerId);
+}
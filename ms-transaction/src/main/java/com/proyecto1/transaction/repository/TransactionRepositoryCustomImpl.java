@@ -0,0 +1,119 @@
+package com.proyecto1.transaction.repository;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.proyecto1.transaction.dto.ProductHolding;
+import com.proyecto1.transaction.entity.Transaction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    // Eventos recordados por cuenta; cubre las reentregas del relay y del broker
+    private static final int APPLIED_EVENTS = 200;
+
+    @Autowired
+    ReactiveMongoTemplate mongoTemplate;
+
+    // Un solo findAndModify: los $inc son atomicos y el aumento de version invalida
+    // cualquier update concurrente que haya leido la cuenta antes.
+    // Solo se incrementan los campos con delta distinto de cero: un $inc de 0 crearia totalPurchases
+    // en cuentas antiguas y reservePurchase dejaria de usar el total calculado de sus compras.
+    // Con eventId el evento se registra en la misma operacion; una entrega repetida ya no coincide con el filtro
+    @Override
+    public Mono<Transaction> applyMovement(String id, BigDecimal balanceDelta, BigDecimal purchasesDelta, int countDelta, String eventId) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        Update update = new Update().inc("version", 1);
+        if (isNonZero(balanceDelta)) {
+            update.inc("availableBalance", new Decimal128(balanceDelta));
+        }
+        if (isNonZero(purchasesDelta)) {
+            update.inc("totalPurchases", new Decimal128(purchasesDelta));
+        }
+        if (countDelta != 0) {
+            update.inc("movementCount", countDelta);
+        }
+        if (eventId != null) {
+            criteria = criteria.and("appliedEvents").ne(eventId);
+            update.push("appliedEvents").slice(-APPLIED_EVENTS).each(eventId);
+        }
+        return mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Transaction.class);
+    }
+
+    // Reserva atomica sobre el limite de la tarjeta: el filtro solo coincide si el total de compras
+    // mas el monto no supera creditLimit, y en la misma operacion se incrementa el total.
+    // Dos compras simultaneas de la misma tarjeta no pueden pasar ambas; tarjetas distintas no se bloquean.
+    @Override
+    public Mono<Transaction> reservePurchase(String id, BigDecimal amount, BigDecimal baseline) {
+        Document newTotal = new Document("$add", Arrays.asList(
+                new Document("$toDecimal", new Document("$ifNull", Arrays.asList("$totalPurchases", new Decimal128(baseline)))),
+                new Decimal128(amount)));
+        Document withinLimit = new Document("$lte", Arrays.asList(newTotal, new Document("$toDecimal", "$creditLimit")));
+        BasicQuery query = new BasicQuery(new Document("_id", id).append("$expr", withinLimit));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set(SetOperation.builder()
+                        .set("totalPurchases").toValue(expression(newTotal))
+                        .and().set("movementCount").toValue(expression(increment("$movementCount")))
+                        .and().set("version").toValue(expression(increment("$version"))));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Transaction.class);
+    }
+
+    // Cuentas anteriores a @Version: sin el campo, save() las trata como nuevas e intenta un insert.
+    // Si otra operacion ya inicio la version el filtro no coincide y Spring lo informa como conflicto
+    @Override
+    public Mono<Void> initVersion(String id) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("version").exists(false)),
+                        Update.update("version", 0L), Transaction.class)
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.empty())
+                .then();
+    }
+
+    // Un solo $match por customerId (prefijo del indice customer_product) y un $group por producto;
+    // solo viajan los totales y los ids de las cuentas del cliente
+    @Override
+    public Flux<ProductHolding> holdingsByCustomerId(String customerId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerId").is(customerId)),
+                context -> new Document("$group", new Document("_id", "$productId")
+                        .append("accountIds", new Document("$push", new Document("$toString", "$_id")))
+                        .append("availableBalance", sumDecimal("$availableBalance"))
+                        .append("creditLimit", sumDecimal("$creditLimit"))
+                        .append("totalPurchases", sumDecimal("$totalPurchases"))
+                        .append("movementCount", new Document("$sum", new Document("$ifNull", Arrays.asList("$movementCount", 0))))));
+        return mongoTemplate.aggregate(aggregation, Transaction.class, ProductHolding.class);
+    }
+
+    private static boolean isNonZero(BigDecimal delta) {
+        return delta != null && delta.signum() != 0;
+    }
+
+    private static Document sumDecimal(String field) {
+        return new Document("$sum", new Document("$toDecimal", new Document("$ifNull", Arrays.asList(field, 0))));
+    }
+
+    private static Document increment(String field) {
+        return new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList(field, 0)), 1));
+    }
+
+    private static AggregationExpression expression(Document document) {
+        return context -> document;
+    }
+}
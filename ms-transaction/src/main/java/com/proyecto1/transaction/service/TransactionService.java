@@ -1,5 +1,10 @@
 package com.proyecto1.transaction.service;
 
+import com.proyecto1.transaction.dto.AccountSummary;
+import com.proyecto1.transaction.dto.CustomerPosition;
+import com.proyecto1.transaction.dto.KeysetPage;
+import com.proyecto1.transaction.dto.MovementDTO;
+import com.proyecto1.transaction.dto.ReservationDTO;
 import com.proyecto1.transaction.entity.Transaction;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -8,6 +13,8 @@ public interface TransactionService {
 
     Flux<Transaction> findAll();
 
+    Mono<KeysetPage<Transaction>> findPage(String after, Integer limit);
+
     Mono<Transaction> save(Transaction t);
 
     Mono<Transaction> findById(String id);
@@ -20,5 +27,13 @@ public interface TransactionService {
     
     Flux<Transaction> findAllWithDetail();
 
+    Mono<AccountSummary> findSummaryById(String id);
+
+    Mono<CustomerPosition> findPositionByCustomerId(String customerId);
+
+    Mono<Transaction> applyMovement(String id, MovementDTO movement);
+
+    Mono<Transaction> reservePurchase(String id, ReservationDTO reservation);
+
     //Flux<Transaction> findAllData(String id);
 }
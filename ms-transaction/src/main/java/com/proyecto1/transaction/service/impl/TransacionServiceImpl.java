@@ -2,30 +2,53 @@ package com.proyecto1.transaction.service.impl;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 import com.proyecto1.transaction.client.*;
+import com.proyecto1.transaction.config.DetailProperties;
+import com.proyecto1.transaction.config.KeysetPager;
+import com.proyecto1.transaction.dto.AccountSummary;
+import com.proyecto1.transaction.dto.CustomerPosition;
+import com.proyecto1.transaction.dto.KeysetPage;
+import com.proyecto1.transaction.dto.MovementDTO;
+import com.proyecto1.transaction.dto.ProductHolding;
+import com.proyecto1.transaction.dto.ProductPosition;
+import com.proyecto1.transaction.dto.ReservationDTO;
 import com.proyecto1.transaction.entity.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.proyecto1.transaction.repository.TransactionRepository;
 import com.proyecto1.transaction.service.TransactionService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Service
 public class TransacionServiceImpl implements TransactionService {
 
     private static final Logger log = LogManager.getLogger(TransacionServiceImpl.class);
+
     @Autowired
     TransactionRepository transactionRepository;
 
+    @Autowired
+    KeysetPager keysetPager;
+
     @Autowired
     CustomerClient customerClient;
     
@@ -47,52 +70,46 @@ public class TransacionServiceImpl implements TransactionService {
     @Autowired
     SignatoryClient signatoryClient;
 
+    @Autowired
+    DetailProperties detailProperties;
+
     @Override
     public Flux<Transaction> findAll() {
         log.info("Method call FindAll - transaction");
         return transactionRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Transaction>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - transaction");
+        return keysetPager.page(Transaction.class, after, limit, Transaction::getId);
+    }
+
     @Override
     public Mono<Transaction> save(Transaction t) {
         log.info("Method call Create - transaction");
 
-        return this.findAllWithDetail()
-                .filter( x -> x.getCustomerId().equals(t.getCustomerId())) // Buscamos el customerId de la lista
-                .filter( x -> (x.getProduct().getIndProduct() == 2 && x.getCustomer().getTypeCustomer() == 1) && (x.getProduct().getId().equals(t.getProductId())) ) // Buscamos si tiene una cuenta bancaria y es cliente personal
-                .hasElements()
-                .flatMap( v -> {
-                    if (v){
+        // Un solo lookup de producto y cliente, y una consulta de existencia por customerId + productId
+        return Mono.zip(product.getProduct(t.getProductId()).defaultIfEmpty(new Product()),
+                        customerClient.getCustomer(t.getCustomerId()).defaultIfEmpty(new Customer()),
+                        transactionRepository.existsByCustomerIdAndProductId(t.getCustomerId(), t.getProductId()))
+                .flatMap( rules -> {
+                    Product prod = rules.getT1();
+                    Customer cust = rules.getT2();
+                    boolean hasProduct = rules.getT3();
+                    if (hasProduct && prod.getIndProduct() == 2 && cust.getTypeCustomer() == 1){ // Ya tiene una cuenta bancaria y es cliente personal
                         return Mono.error(new RuntimeException("The personal client cannot have more than one bank account"));
-                    }else{
-                        return this.findAllWithDetail()
-                                .filter( x -> x.getCustomerId().equals(t.getCustomerId())) // Buscamos el customerId de la lista
-                                .filter( x -> (x.getProduct().getIndProduct() == 1 && x.getCustomer().getTypeCustomer() == 1) && (x.getProduct().getId().equals(t.getProductId())) ) // Buscamos si tiene un credito y es cliente personal
-                                .hasElements()
-                                .flatMap( w -> {
-                                   if (w){
-                                       return Mono.error(new RuntimeException("The personal client cannot have more than one credit"));
-                                   }else{
-                                       return product.getProduct(t.getProductId())
-                                               .filter( x -> (x.getIndProduct() == 2) )
-                                               .filter( x -> (x.getTypeProduct() == 1 || x.getTypeProduct() == 3) )
-                                               .hasElement()
-                                               .flatMap( zz -> {
-                                                   return customerClient.getCustomer(t.getCustomerId())
-                                                           .filter( (x -> x.getTypeCustomer() == 2) )
-                                                           .hasElement()
-                                                           .flatMap( yy -> {
-                                                               if ( zz  && yy ){
-                                                                   return Mono.error(new RuntimeException("The business client cannot have a savings or fixed-term account"));
-                                                               }else{
-                                                                   				return transactionRepository.save(t);
-
-                                                               }
-                                                           });
-                                               });
-                                   }
-                                });
                     }
+                    if (hasProduct && prod.getIndProduct() == 1 && cust.getTypeCustomer() == 1){ // Ya tiene un credito y es cliente personal
+                        return Mono.error(new RuntimeException("The personal client cannot have more than one credit"));
+                    }
+                    if (prod.getIndProduct() == 2 && (prod.getTypeProduct() == 1 || prod.getTypeProduct() == 3) && cust.getTypeCustomer() == 2){
+                        return Mono.error(new RuntimeException("The business client cannot have a savings or fixed-term account"));
+                    }
+                    t.setTotalPurchases(BigDecimal.ZERO);
+                    t.setMovementCount(0L);
+                    t.setMaterialized(true);
+                    return transactionRepository.save(t);
                 });
     }
 
@@ -106,12 +123,13 @@ public class TransacionServiceImpl implements TransactionService {
     public Mono<Transaction> update(Transaction t, String id) {
         log.info("Method call Update - transaction");
         return transactionRepository.findById(id)
+                .flatMap( x -> x.getVersion() != null ? Mono.just(x)
+                        : transactionRepository.initVersion(id).then(transactionRepository.findById(id)))
                 .map( x -> {
                     x.setProductId(t.getProductId());
                     x.setAccountNumber(t.getAccountNumber());
                     x.setMovementLimit(t.getMovementLimit());
                     x.setCreditLimit(t.getCreditLimit());
-                    x.setAvailableBalance(t.getAvailableBalance());
                     x.setMaintenanceCommission(t.getMaintenanceCommission());
                     x.setCardNumber(t.getCardNumber());
                     x.setRetirementDateFixedTerm(t.getRetirementDateFixedTerm());
@@ -128,82 +146,228 @@ public class TransacionServiceImpl implements TransactionService {
     @Override
     public Mono<Transaction> findByIdWithCustomer(String id) {
         log.info("Method call FindByIdWithCustomer - transaction");
+        // Las consultas son independientes entre si: se lanzan en paralelo, con a lo sumo max-concurrency
+        // a la vez, y el zip combina los resultados ya guardados en cache. Sin cliente o producto no hay detalle
         return transactionRepository.findById(id)
-                .flatMap( trans -> customerClient.getCustomer(trans.getCustomerId())
-                        .flatMap( customer -> {
-                            return product.getProduct(trans.getProductId())
-                                    .flatMap( product -> {
-                                        return depositClient.getDeposit()
-                                                .filter(x -> x.getTransactionId().equals(trans.getId()))
-                                                .collectList()
-                                                .flatMap((deposit -> {
-                                                    return withDrawalClient.getWithDrawal()
-                                                           .filter(i -> i.getTransactionId().equals(trans.getId()))
-                                                           .collectList()
-                                                           .flatMap(( withdrawals -> {
-                                                               return paymentClient.getPayment()
-                                                                       .filter(z -> z.getTransactionId().equals(trans.getId()))
-                                                                       .collectList()
-                                                                       .flatMap((payments -> {
-                                                               return purchaseClient.getPurchase()
-                                                                       .filter(y -> y.getTransactionId().equals(trans.getId()))
-                                                                       .collectList()
-                                                                       .flatMap(purchases -> {
-
-                                                                           return signatoryClient.getSignatory()
-                                                                                   .filter(o -> o.getTransactionId().equals(trans.getId()))
-                                                                                   .collectList()
-                                                                                   .flatMap(signatories -> {
-                                                                                       ValorAllValidator(trans, customer, product, deposit, withdrawals, payments, purchases, signatories);
-                                                                                       return Mono.just(trans);
-                                                                                   });
-                                                                       });
-
-                                                                       } ));
-                                                   } ));
-                                    }));
-                        });
-            }));
+                .flatMap( trans -> {
+                    Mono<Customer> customer = required(customerClient.getCustomer(trans.getCustomerId()), "customer").cache();
+                    Mono<Product> prod = required(product.getProduct(trans.getProductId()), "product").cache();
+                    Mono<List<Deposit>> deposits = optional(depositClient.getDepositByTransactionId(trans.getId()), "deposit").cache();
+                    Mono<List<Withdrawal>> withdrawals = optional(withDrawalClient.getWithDrawalByTransactionId(trans.getId()), "withdrawal").cache();
+                    Mono<List<Payment>> payments = optional(paymentClient.getPaymentByTransactionId(trans.getId()), "payment").cache();
+                    Mono<List<Purchase>> purchases = optional(purchaseClient.getPurchaseByTransactionId(trans.getId()), "purchase").cache();
+                    Mono<List<Signatory>> signatories = optional(signatoryClient.getSignatoryByTransactionId(trans.getId()), "signatory").cache();
+                    return Flux.<Mono<?>>just(customer, prod, deposits, withdrawals, payments, purchases, signatories)
+                            .flatMap(branch -> branch, detailProperties.getMaxConcurrency())
+                            .then(Mono.zip(customer, prod, deposits, withdrawals, payments, purchases, signatories))
+                            .map(detail -> {
+                                ValorAllValidator(trans, detail.getT1(), detail.getT2(), detail.getT3(), detail.getT4(),
+                                        detail.getT5(), detail.getT6(), detail.getT7());
+                                return trans;
+                            });
+                });
+    }
+
+    @Override
+    public Mono<AccountSummary> findSummaryById(String id) {
+        log.info("Method call FindSummaryById - transaction");
+        // Cliente y producto salen de la cache local; no se consultan los movimientos
+        return transactionRepository.findSummaryById(id)
+                .flatMap( trans -> Mono.zip(
+                                required(customerClient.getCustomer(trans.getCustomerId()), "customer"),
+                                required(product.getProduct(trans.getProductId()), "product"))
+                        .map(t -> AccountSummary.builder()
+                                .id(trans.getId())
+                                .creditLimit(trans.getCreditLimit())
+                                .availableBalance(trans.getAvailableBalance())
+                                .totalPurchases(trans.getTotalPurchases())
+                                .indProduct(t.getT2().getIndProduct())
+                                .typeProduct(t.getT2().getTypeProduct())
+                                .typeCustomer(t.getT1().getTypeCustomer())
+                                .build()));
+    }
+
+    @Override
+    public Mono<CustomerPosition> findPositionByCustomerId(String customerId) {
+        log.info("Method call FindPositionByCustomerId - transaction");
+        // Solo se leen las cuentas del cliente; los movimientos se piden por lotes de ids de esas cuentas
+        return transactionRepository.holdingsByCustomerId(customerId)
+                .flatMap(holding -> product.getProduct(holding.getProductId())
+                        .defaultIfEmpty(new Product())
+                        .map(prod -> Tuples.of(holding, prod)))
+                .collectList()
+                .filter(holdings -> !holdings.isEmpty())
+                .flatMap(holdings -> {
+                    List<String> accountIds = holdings.stream()
+                            .flatMap(h -> h.getT1().getAccountIds().stream())
+                            .collect(Collectors.toList());
+                    return Mono.zip(
+                                    customerClient.getCustomer(customerId).defaultIfEmpty(new Customer()),
+                                    sumByAccount(accountIds, depositClient::getDepositByTransactionIds, Deposit::getTransactionId, Deposit::getDepositAmount, "deposit"),
+                                    sumByAccount(accountIds, withDrawalClient::getWithDrawalByTransactionIds, Withdrawal::getTransactionId, Withdrawal::getWithdrawalAmount, "withdrawal"),
+                                    sumByAccount(accountIds, paymentClient::getPaymentByTransactionIds, Payment::getTransactionId, Payment::getPaymentAmount, "payment"),
+                                    sumByAccount(accountIds, purchaseClient::getPurchaseByTransactionIds, Purchase::getTransactionId, Purchase::getPurchaseAmount, "purchase"))
+                            .map(t -> toPosition(customerId, t.getT1(), holdings, t.getT2(), t.getT3(), t.getT4(), t.getT5()));
+                });
+    }
+
+    @Override
+    public Mono<Transaction> applyMovement(String id, MovementDTO movement) {
+        log.info("Method call ApplyMovement - transaction");
+        if (movement.getType() == null) {
+            return Mono.error(new RuntimeException("The movement type is required"));
+        }
+        BigDecimal amount = movement.getAmount() == null ? BigDecimal.ZERO : movement.getAmount();
+        Mono<Transaction> applied;
+        switch (movement.getType()) {
+            case DEPOSIT:
+            case PAYMENT:
+                applied = transactionRepository.applyMovement(id, amount, BigDecimal.ZERO, movement.getCount(), movement.getEventId());
+                break;
+            case WITHDRAWAL:
+                applied = transactionRepository.applyMovement(id, amount.negate(), BigDecimal.ZERO, movement.getCount(), movement.getEventId());
+                break;
+            case PURCHASE:
+                applied = transactionRepository.applyMovement(id, BigDecimal.ZERO, amount, movement.getCount(), movement.getEventId());
+                break;
+            default:
+                return Mono.error(new RuntimeException("Unknown movement type " + movement.getType()));
+        }
+        // Evento ya aplicado: se responde con el estado actual sin volver a sumar
+        Mono<Transaction> result = movement.getEventId() == null ? applied
+                : applied.switchIfEmpty(Mono.defer(() -> transactionRepository.findById(id)));
+        // Sin cuenta el movimiento no se aplico: con 404 el relay termina apartando el evento
+        // y el consumidor de Kafka lo envia al DLT, en lugar de darlo por entregado
+        return result.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found")));
+    }
+
+    @Override
+    public Mono<Transaction> reservePurchase(String id, ReservationDTO reservation) {
+        log.info("Method call ReservePurchase - transaction");
+        if (reservation.getAmount() == null || reservation.getAmount().signum() <= 0) {
+            return Mono.error(new RuntimeException("The purchase amount must be greater than zero"));
+        }
+        BigDecimal baseline = reservation.getBaseline() == null ? BigDecimal.ZERO : reservation.getBaseline();
+        // Vacio si la compra supera el limite de credito
+        return transactionRepository.reservePurchase(id, reservation.getAmount(), baseline);
+    }
+
+    private <T> Mono<T> required(Mono<T> call, String branch) {
+        return call.timeout(detailProperties.timeoutFor(branch))
+                .doOnError(e -> log.error("Detail branch " + branch + " failed - transaction: " + e.getMessage()));
+    }
+
+    private <T> Mono<List<T>> optional(Flux<T> call, String branch) {
+        return call.collectList()
+                .timeout(detailProperties.timeoutFor(branch))
+                .onErrorResume(e -> {
+                    if (!detailProperties.isPartialResults()) {
+                        return Mono.error(e);
+                    }
+                    log.warn("Detail branch " + branch + " omitted - transaction: " + e.getMessage());
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    // Suma los montos por cuenta a medida que llegan, sin guardar los movimientos.
+    // Los lotes son obligatorios aun con partial-results: una posicion con un lote omitido
+    // mostraria totales menores como si fueran completos, asi que un lote que falla o vence hace fallar la consulta
+    private <T> Mono<Map<String, BigDecimal>> sumByAccount(List<String> accountIds, Function<List<String>, Flux<T>> fetch,
+                                                          Function<T, String> account, Function<T, BigDecimal> amount, String branch) {
+        return Flux.fromIterable(accountIds)
+                .buffer(detailProperties.getIdsPerRequest())
+                .concatMap(ids -> required(fetch.apply(ids).collectList(), branch))
+                .flatMapIterable(movements -> movements)
+                .reduceWith(HashMap::new, (totals, movement) -> {
+                    totals.merge(account.apply(movement), amountOf(amount.apply(movement)), BigDecimal::add);
+                    return totals;
+                });
+    }
+
+    // Una sola pasada por los productos del cliente acumulando por tipo de producto
+    private CustomerPosition toPosition(String customerId, Customer customer, List<Tuple2<ProductHolding, Product>> holdings,
+                                        Map<String, BigDecimal> deposits, Map<String, BigDecimal> withdrawals,
+                                        Map<String, BigDecimal> payments, Map<String, BigDecimal> purchases) {
+        Map<String, ProductPosition> byType = new LinkedHashMap<>();
+        for (Tuple2<ProductHolding, Product> t : holdings) {
+            ProductHolding holding = t.getT1();
+            Product prod = t.getT2();
+            ProductPosition position = byType.computeIfAbsent(prod.getIndProduct() + "-" + prod.getTypeProduct(),
+                    key -> ProductPosition.builder()
+                            .indProduct(prod.getIndProduct())
+                            .descIndProduct(prod.getDescIndProduct())
+                            .typeProduct(prod.getTypeProduct())
+                            .descTypeProduct(prod.getDescTypeProduct())
+                            .accountIds(new ArrayList<>())
+                            .availableBalance(BigDecimal.ZERO)
+                            .creditLimit(BigDecimal.ZERO)
+                            .totalPurchases(BigDecimal.ZERO)
+                            .depositTotal(BigDecimal.ZERO)
+                            .withdrawalTotal(BigDecimal.ZERO)
+                            .paymentTotal(BigDecimal.ZERO)
+                            .purchaseTotal(BigDecimal.ZERO)
+                            .build());
+            position.getAccountIds().addAll(holding.getAccountIds());
+            position.setAvailableBalance(position.getAvailableBalance().add(amountOf(holding.getAvailableBalance())));
+            position.setCreditLimit(position.getCreditLimit().add(amountOf(holding.getCreditLimit())));
+            position.setTotalPurchases(position.getTotalPurchases().add(amountOf(holding.getTotalPurchases())));
+            position.setMovementCount(position.getMovementCount() + (holding.getMovementCount() == null ? 0 : holding.getMovementCount()));
+            for (String accountId : holding.getAccountIds()) {
+                position.setDepositTotal(position.getDepositTotal().add(deposits.getOrDefault(accountId, BigDecimal.ZERO)));
+                position.setWithdrawalTotal(position.getWithdrawalTotal().add(withdrawals.getOrDefault(accountId, BigDecimal.ZERO)));
+                position.setPaymentTotal(position.getPaymentTotal().add(payments.getOrDefault(accountId, BigDecimal.ZERO)));
+                position.setPurchaseTotal(position.getPurchaseTotal().add(purchases.getOrDefault(accountId, BigDecimal.ZERO)));
+            }
+        }
+        List<ProductPosition> products = new ArrayList<>(byType.values());
+        return CustomerPosition.builder()
+                .customerId(customerId)
+                .customer(customer)
+                .products(products)
+                .availableBalance(products.stream().map(ProductPosition::getAvailableBalance).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .creditLimit(products.stream().map(ProductPosition::getCreditLimit).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .totalPurchases(products.stream().map(ProductPosition::getTotalPurchases).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .build();
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
     }
 
 	@Override
 	public Flux<Transaction> findAllWithDetail() {
-        return transactionRepository.findAll()
-                .flatMap( trans -> customerClient.getCustomer(trans.getCustomerId())
-                        .flatMapMany( customer -> {
-                            return product.getProduct(trans.getProductId())
-                                    .flatMapMany( product -> depositClient.getDeposit()
-                                            .filter(x -> x.getTransactionId().equals(trans.getId()))
-                                            .collectList()
-                                            .flatMapMany((deposit -> {
-                                                return withDrawalClient.getWithDrawal()
-                                                        .filter(i -> i.getTransactionId().equals(trans.getId()))
-                                                        .collectList()
-                                                        .flatMapMany(( withdrawals -> {
-                                                            return paymentClient.getPayment()
-                                                                    .filter(z -> z.getTransactionId().equals(trans.getId()))
-                                                                    .collectList()
-                                                                    .flatMapMany((payments -> {
-                                                                        return purchaseClient.getPurchase()
-                                                                                .filter(y -> y.getTransactionId().equals(trans.getId()))
-                                                                                .collectList()
-                                                                                .flatMapMany(purchases -> {
-                                                                                    return signatoryClient.getSignatory()
-                                                                                            .filter(o -> o.getTransactionId().equals(trans.getId()))
-                                                                                            .collectList()
-                                                                                            .flatMapMany(signatories -> {
-                                                                                                ValorAllValidator(trans, customer, product, deposit, withdrawals, payments, purchases, signatories);
-                                                                                                return Flux.just(trans);
-                                                                                            });
-                                                                                });
-
-                                                                    } ));
-                                                        } ));
-                                            })));
-                        }));
-
+        log.info("Method call FindAllWithDetail - transaction");
+        // Cada coleccion hija se consulta una sola vez y se agrupa por transactionId;
+        // las cuentas se leen como stream y se emiten a medida que se completan
+        return Mono.zip(
+                        depositClient.getDeposit().collectMultimap(Deposit::getTransactionId),
+                        withDrawalClient.getWithDrawal().collectMultimap(Withdrawal::getTransactionId),
+                        paymentClient.getPayment().collectMultimap(Payment::getTransactionId),
+                        purchaseClient.getPurchase().collectMultimap(Purchase::getTransactionId),
+                        signatoryClient.getSignatory().collectMultimap(Signatory::getTransactionId))
+                .flatMapMany(children -> {
+                    Map<String, Mono<Customer>> customers = new HashMap<>();
+                    Map<String, Mono<Product>> products = new HashMap<>();
+                    return transactionRepository.findAll()
+                            .flatMap(trans -> Mono.zip(
+                                            customers.computeIfAbsent(trans.getCustomerId(), id -> customerClient.getCustomer(id).cache()),
+                                            products.computeIfAbsent(trans.getProductId(), id -> product.getProduct(id).cache()))
+                                    .map(reference -> {
+                                        ValorAllValidator(trans, reference.getT1(), reference.getT2(),
+                                                joined(children.getT1(), trans.getId()),
+                                                joined(children.getT2(), trans.getId()),
+                                                joined(children.getT3(), trans.getId()),
+                                                joined(children.getT4(), trans.getId()),
+                                                joined(children.getT5(), trans.getId()));
+                                        return trans;
+                                    }));
+                });
 	}
 
+    private static <T> List<T> joined(Map<String, Collection<T>> byTransaction, String transactionId) {
+        return new ArrayList<>(byTransaction.getOrDefault(transactionId, Collections.emptyList()));
+    }
+
     private void ValorAllValidator(Transaction trans, Customer customer, Product product, List<Deposit> deposit, List<Withdrawal> withdrawals, List<Payment> payments, List<Purchase> purchases, List<Signatory> signatories) {
         trans.setCustomer(customer);
         trans.setProduct(product);
@@ -0,0 +1,78 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.model.changestream.OperationType;
+
+public class ChangeStreamInvalidatorTest {
+
+    @Test
+    void updateInvalidatesOnlyTheChangedDocument() {
+        ChangeStreamInvalidator invalidator = new ChangeStreamInvalidator();
+        RecordingListener customers = new RecordingListener();
+        RecordingListener products = new RecordingListener();
+        invalidator.subscribe("customer", customers);
+        invalidator.subscribe("product", products);
+
+        invalidator.dispatch("customer", OperationType.UPDATE, "c1");
+        invalidator.dispatch("customer", OperationType.DELETE, "c2");
+
+        assertEquals(List.of("c1", "c2"), customers.invalidated);
+        assertEquals(0, customers.invalidatedAll);
+        assertEquals(List.of(), products.invalidated);
+    }
+
+    @Test
+    void dropInvalidatesEverything() {
+        ChangeStreamInvalidator invalidator = new ChangeStreamInvalidator();
+        RecordingListener products = new RecordingListener();
+        invalidator.subscribe("product", products);
+
+        invalidator.dispatch("product", OperationType.DROP, null);
+
+        assertEquals(1, products.invalidatedAll);
+    }
+
+    @Test
+    void failingListenerDoesNotBlockTheOthers() {
+        ChangeStreamInvalidator invalidator = new ChangeStreamInvalidator();
+        RecordingListener customers = new RecordingListener();
+        invalidator.subscribe("customer", new InvalidationListener() {
+            @Override
+            public void invalidate(String id) {
+                throw new IllegalStateException("cache closed");
+            }
+
+            @Override
+            public void invalidateAll() {
+                throw new IllegalStateException("cache closed");
+            }
+        });
+        invalidator.subscribe("customer", customers);
+
+        invalidator.dispatch("customer", OperationType.REPLACE, "c1");
+
+        assertEquals(List.of("c1"), customers.invalidated);
+    }
+
+    private static class RecordingListener implements InvalidationListener {
+
+        private final List<String> invalidated = new ArrayList<>();
+        private int invalidatedAll;
+
+        @Override
+        public void invalidate(String id) {
+            invalidated.add(id);
+        }
+
+        @Override
+        public void invalidateAll() {
+            invalidatedAll++;
+        }
+    }
+}
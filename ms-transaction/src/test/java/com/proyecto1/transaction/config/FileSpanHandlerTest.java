@@ -0,0 +1,38 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import brave.Span;
+import brave.Tracing;
+
+public class FileSpanHandlerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesFinishedSpansAsJsonLines() throws Exception {
+        Path file = dir.resolve("spans.jsonl");
+        FileSpanHandler handler = new FileSpanHandler(file, 10);
+        try (Tracing tracing = Tracing.newBuilder().localServiceName("transaction-service").addSpanHandler(handler).build()) {
+            Span parent = tracing.tracer().newTrace().name("find-by-id-with-customer").start();
+            tracing.tracer().newChild(parent.context()).name("find").start().finish();
+            parent.finish();
+        }
+        handler.destroy();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"find\""));
+        assertTrue(lines.get(1).contains("\"name\":\"find-by-id-with-customer\""));
+        assertTrue(lines.get(1).contains("\"serviceName\":\"transaction-service\""));
+    }
+}
@@ -0,0 +1,34 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+
+public class InMemorySpanHandlerTest {
+
+    @Test
+    void keepsOnlyTheLatestSpans() {
+        InMemorySpanHandler handler = new InMemorySpanHandler(2);
+        try (Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            Span parent = tracing.tracer().newTrace().name("parent").start();
+            tracing.tracer().newChild(parent.context()).name("first").start().finish();
+            tracing.tracer().newChild(parent.context()).name("second").start().finish();
+            parent.finish();
+            tracing.tracer().newTrace().name("other").start().finish();
+
+            assertEquals(List.of("parent", "other"), names(handler.spans()));
+            assertEquals(List.of("parent"), names(handler.trace(parent.context().traceIdString())));
+        }
+    }
+
+    private static List<String> names(List<MutableSpan> spans) {
+        return spans.stream().map(MutableSpan::name).collect(Collectors.toList());
+    }
+}
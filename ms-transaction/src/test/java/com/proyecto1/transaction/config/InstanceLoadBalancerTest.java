@@ -0,0 +1,154 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+// Las copias de InstanceLoadBalancer en los demas servicios son identicas salvo el paquete
+public class InstanceLoadBalancerTest {
+
+    private static final String SERVICE = "deposit-service";
+
+    private final ServiceInstance first = new DefaultServiceInstance("deposit-1", SERVICE, "10.0.0.1", 8080, false);
+    private final ServiceInstance second = new DefaultServiceInstance("deposit-2", SERVICE, "10.0.0.2", 8080, false);
+
+    @Test
+    void leastOutstandingPicksInstanceWithFewerRequestsInFlight() {
+        InstanceLoadBalancer loadBalancer = loadBalancer(InstanceLoadBalancer.Strategy.LEAST_OUTSTANDING, first, second);
+        start(loadBalancer, first);
+        start(loadBalancer, first);
+        start(loadBalancer, second);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(second, choose(loadBalancer));
+        }
+    }
+
+    @Test
+    void latencyPicksInstanceWithLowerAverage() {
+        InstanceLoadBalancer loadBalancer = loadBalancer(InstanceLoadBalancer.Strategy.LATENCY, first, second);
+        complete(loadBalancer, first, Duration.ofMillis(500), CompletionContext.Status.SUCCESS);
+        complete(loadBalancer, second, Duration.ofMillis(5), CompletionContext.Status.SUCCESS);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(second, choose(loadBalancer));
+        }
+    }
+
+    @Test
+    void latencyWeighsRequestsInFlight() {
+        InstanceLoadBalancer loadBalancer = loadBalancer(InstanceLoadBalancer.Strategy.LATENCY, first, second);
+        complete(loadBalancer, first, Duration.ofMillis(100), CompletionContext.Status.SUCCESS);
+        complete(loadBalancer, second, Duration.ofMillis(60), CompletionContext.Status.SUCCESS);
+        // 60ms x 2 en curso supera a 100ms x 1
+        start(loadBalancer, second);
+
+        assertEquals(first, choose(loadBalancer));
+    }
+
+    @Test
+    void failedRequestReleasesInstance() {
+        InstanceLoadBalancer loadBalancer = loadBalancer(InstanceLoadBalancer.Strategy.LEAST_OUTSTANDING, first, second);
+        complete(loadBalancer, first, Duration.ofMillis(1), CompletionContext.Status.FAILED);
+        start(loadBalancer, second);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, choose(loadBalancer));
+        }
+    }
+
+    @Test
+    void cancelledRequestReleasesInstance() {
+        InstanceLoadBalancer loadBalancer = loadBalancer(InstanceLoadBalancer.Strategy.LEAST_OUTSTANDING, first, second);
+        DefaultRequest<Object> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = new DefaultResponse(first);
+        loadBalancer.onStartRequest(request, response);
+        // El filtro de WebClient informa DISCARD, sin cuerpo ni error, cuando se cancela la peticion
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.DISCARD, request, response));
+        start(loadBalancer, second);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, choose(loadBalancer));
+        }
+    }
+
+    @Test
+    void withoutStatsSpreadsRequestsAcrossInstances() {
+        for (InstanceLoadBalancer.Strategy strategy : InstanceLoadBalancer.Strategy.values()) {
+            InstanceLoadBalancer loadBalancer = loadBalancer(strategy, first, second);
+            Set<ServiceInstance> chosen = new HashSet<>();
+            for (int i = 0; i < 4; i++) {
+                chosen.add(choose(loadBalancer));
+            }
+            assertEquals(2, chosen.size(), strategy.name());
+        }
+    }
+
+    @Test
+    void withoutInstancesReturnsEmptyResponse() {
+        InstanceLoadBalancer loadBalancer = loadBalancer(InstanceLoadBalancer.Strategy.LATENCY);
+
+        assertFalse(loadBalancer.choose(request()).block().hasServer());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void withoutSupplierReturnsEmptyResponse() {
+        ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        InstanceLoadBalancer loadBalancer = new InstanceLoadBalancer(provider, SERVICE, InstanceLoadBalancer.Strategy.LEAST_OUTSTANDING);
+
+        assertFalse(loadBalancer.choose(request()).block().hasServer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private InstanceLoadBalancer loadBalancer(InstanceLoadBalancer.Strategy strategy, ServiceInstance... instances) {
+        ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(ServiceInstanceListSuppliers.from(SERVICE, instances));
+        return new InstanceLoadBalancer(provider, SERVICE, strategy);
+    }
+
+    private ServiceInstance choose(InstanceLoadBalancer loadBalancer) {
+        return loadBalancer.choose(request()).block().getServer();
+    }
+
+    private void start(InstanceLoadBalancer loadBalancer, ServiceInstance instance) {
+        loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(instance));
+    }
+
+    private void complete(InstanceLoadBalancer loadBalancer, ServiceInstance instance, Duration elapsed, CompletionContext.Status status) {
+        RequestDataContext context = new RequestDataContext();
+        DefaultRequest<Object> request = new DefaultRequest<>(context);
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        context.setRequestStartTime(System.nanoTime() - elapsed.toNanos());
+        CompletionContext<Object, ServiceInstance, Object> completion = status == CompletionContext.Status.FAILED
+                ? new CompletionContext<>(status, new IllegalStateException("connection reset"), request, response)
+                : new CompletionContext<>(status, request, response);
+        loadBalancer.onComplete(completion);
+    }
+
+    private static Request<Object> request() {
+        return new DefaultRequest<>(new RequestDataContext());
+    }
+}
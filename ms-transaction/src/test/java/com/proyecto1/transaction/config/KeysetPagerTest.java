@@ -0,0 +1,67 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.proyecto1.transaction.dto.KeysetPage;
+import com.proyecto1.transaction.entity.Transaction;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+// KeysetPager se copia sin cambios en cada servicio; este test cubre todas las copias
+public class KeysetPagerTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private KeysetPager pager;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        pager = new KeysetPager();
+        pager.mongoTemplate = new ReactiveMongoTemplate(client, "test");
+        pager.paginationProperties = new PaginationProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void followsTheCursorToTheNextPage() {
+        String collection = pager.mongoTemplate.getCollectionName(Transaction.class);
+        for (int i = 0; i < 5; i++) {
+            pager.mongoTemplate.insert(new Document("_id", ObjectId.get()), collection).block();
+        }
+
+        KeysetPage<Transaction> first = pager.page(Transaction.class, null, 2, Transaction::getId).block();
+        KeysetPage<Transaction> second = pager.page(Transaction.class, first.getNextCursor(), 2, Transaction::getId).block();
+        KeysetPage<Transaction> last = pager.page(Transaction.class, second.getNextCursor(), 2, Transaction::getId).block();
+
+        assertEquals(2, second.getItems().size());
+        assertEquals(1, last.getItems().size());
+        assertNull(last.getNextCursor());
+        List<ObjectId> ids = pager.mongoTemplate.findAll(Document.class, collection)
+                .map(document -> document.getObjectId("_id"))
+                .sort()
+                .collectList().block();
+        assertEquals(ids.subList(2, 4).stream().map(ObjectId::toString).collect(Collectors.toList()),
+                second.getItems().stream().map(Transaction::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.proyecto1.transaction.client.DepositClient;
+import com.proyecto1.transaction.client.PaymentClient;
+import com.proyecto1.transaction.client.PurchaseClient;
+import com.proyecto1.transaction.client.WithDrawalClient;
+import com.proyecto1.transaction.entity.Deposit;
+import com.proyecto1.transaction.entity.Purchase;
+import com.proyecto1.transaction.entity.Transaction;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class MaterializedFieldsBackfillTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private MaterializedFieldsBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        backfill = new MaterializedFieldsBackfill();
+        backfill.mongoTemplate = new ReactiveMongoTemplate(client, "test");
+        backfill.depositClient = Mockito.mock(DepositClient.class);
+        backfill.withDrawalClient = Mockito.mock(WithDrawalClient.class);
+        backfill.paymentClient = Mockito.mock(PaymentClient.class);
+        backfill.purchaseClient = Mockito.mock(PurchaseClient.class);
+        Mockito.when(backfill.withDrawalClient.getWithDrawalByTransactionIds(Mockito.any())).thenReturn(Flux.empty());
+        Mockito.when(backfill.paymentClient.getPaymentByTransactionIds(Mockito.any())).thenReturn(Flux.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void recomputesTotalsOfAccountsTouchedBeforeTheBackfill() {
+        // Estado que dejaba un $inc de 0: totalPurchases en cero y movementCount solo con el ultimo movimiento
+        String id = account(new Document("totalPurchases", new Decimal128(BigDecimal.ZERO)).append("movementCount", 1L).append("version", 3L));
+        Mockito.when(backfill.depositClient.getDepositByTransactionIds(Mockito.any()))
+                .thenReturn(Flux.just(Deposit.builder().transactionId(id).build()));
+        Mockito.when(backfill.purchaseClient.getPurchaseByTransactionIds(Mockito.any()))
+                .thenReturn(Flux.just(purchase(id, "40"), purchase(id, "60")));
+
+        StepVerifier.create(backfill.run()).verifyComplete();
+
+        Transaction stored = backfill.mongoTemplate.findById(id, Transaction.class).block();
+        assertEquals(0, new BigDecimal("100").compareTo(stored.getTotalPurchases()));
+        assertEquals(3L, stored.getMovementCount());
+        assertEquals(Boolean.TRUE, stored.getMaterialized());
+        assertEquals(4L, stored.getVersion());
+    }
+
+    @Test
+    void retriesAccountsThatChangeWhileBeingFilled() {
+        String id = account(new Document());
+        Mockito.when(backfill.depositClient.getDepositByTransactionIds(Mockito.any())).thenReturn(Flux.empty());
+        Mockito.when(backfill.purchaseClient.getPurchaseByTransactionIds(Mockito.any()))
+                .thenReturn(backfill.mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                        new Update().inc("version", 1), Transaction.class).thenMany(Flux.empty()))
+                .thenReturn(Flux.just(purchase(id, "25")));
+
+        StepVerifier.create(backfill.run()).verifyError(IllegalStateException.class);
+        assertNull(backfill.mongoTemplate.findById(id, Transaction.class).block().getMaterialized());
+
+        StepVerifier.create(backfill.run()).verifyComplete();
+        Transaction stored = backfill.mongoTemplate.findById(id, Transaction.class).block();
+        assertEquals(0, new BigDecimal("25").compareTo(stored.getTotalPurchases()));
+        assertEquals(Boolean.TRUE, stored.getMaterialized());
+    }
+
+    private String account(Document fields) {
+        ObjectId id = ObjectId.get();
+        Document document = new Document("_id", id).append("availableBalance", new Decimal128(BigDecimal.TEN));
+        document.putAll(fields);
+        backfill.mongoTemplate.insert(document, backfill.mongoTemplate.getCollectionName(Transaction.class)).block();
+        return id.toString();
+    }
+
+    private static Purchase purchase(String transactionId, String amount) {
+        return Purchase.builder().transactionId(transactionId).purchaseAmount(new BigDecimal(amount)).build();
+    }
+}
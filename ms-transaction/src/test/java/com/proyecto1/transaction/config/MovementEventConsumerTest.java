@@ -0,0 +1,128 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto1.transaction.entity.Transaction;
+import com.proyecto1.transaction.repository.TransactionRepository;
+import com.proyecto1.transaction.service.TransactionService;
+import com.proyecto1.transaction.service.impl.TransacionServiceImpl;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.test.StepVerifier;
+
+public class MovementEventConsumerTest {
+
+    private static final String EVENT = "{\"id\":\"e1\",\"transactionId\":\"t1\",\"type\":\"DEPOSIT\",\"amount\":10,\"count\":1}";
+
+    private MovementEventConsumer consumer;
+    private TransactionService transactionService;
+    private KafkaSender<String, String> sender;
+    private ReceiverOffset offset;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        sender = mock(KafkaSender.class);
+        offset = mock(ReceiverOffset.class);
+        MovementEventProperties properties = new MovementEventProperties();
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        consumer = new MovementEventConsumer();
+        consumer.transactionService = transactionService;
+        consumer.properties = properties;
+        consumer.objectMapper = new ObjectMapper();
+        consumer.deadLetterSender = sender;
+    }
+
+    @Test
+    void acknowledgesAppliedEvent() {
+        when(transactionService.applyMovement(eq("t1"), any())).thenReturn(Mono.just(new Transaction()));
+
+        StepVerifier.create(consumer.apply(record(EVENT))).verifyComplete();
+
+        verify(offset).acknowledge();
+        verify(sender, never()).send(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendsUnappliedEventToDeadLetterBeforeAcknowledging() {
+        when(transactionService.applyMovement(eq("t1"), any())).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+        when(sender.send(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(consumer.apply(record(EVENT))).verifyComplete();
+
+        ArgumentCaptor<Mono<SenderRecord<String, String, String>>> sent = ArgumentCaptor.forClass(Mono.class);
+        verify(sender).send(sent.capture());
+        SenderRecord<String, String, String> dead = sent.getValue().block();
+        assertEquals("account-movements.DLT", dead.topic());
+        assertEquals(EVENT, dead.value());
+        assertEquals("mongo down", new String(dead.headers().lastHeader("x-exception-message").value()));
+        verify(offset).acknowledge();
+    }
+
+    @Test
+    void sendsEventForMissingAccountToDeadLetter() {
+        TransactionRepository repository = mock(TransactionRepository.class);
+        TransacionServiceImpl service = new TransacionServiceImpl();
+        ReflectionTestUtils.setField(service, "transactionRepository", repository);
+        consumer.transactionService = service;
+        when(repository.applyMovement(eq("t1"), any(), any(), anyInt(), eq("e1"))).thenReturn(Mono.empty());
+        when(repository.findById("t1")).thenReturn(Mono.empty());
+        when(sender.send(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(consumer.apply(record(EVENT))).verifyComplete();
+
+        verify(sender).send(any());
+        verify(offset).acknowledge();
+    }
+
+    @Test
+    void sendsUnreadableEventToDeadLetter() {
+        when(sender.send(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(consumer.apply(record("not json"))).verifyComplete();
+
+        verify(sender).send(any());
+        verify(offset).acknowledge();
+    }
+
+    @Test
+    void keepsOffsetWhileDeadLetterIsUnavailable() {
+        when(transactionService.applyMovement(eq("t1"), any())).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+        when(sender.send(any())).thenReturn(Flux.error(new IllegalStateException("broker down")));
+
+        StepVerifier.withVirtualTime(() -> consumer.apply(record(EVENT)))
+                .thenAwait(Duration.ofHours(1))
+                .expectNoEvent(Duration.ofMinutes(1))
+                .thenCancel()
+                .verify();
+
+        verify(offset, never()).acknowledge();
+    }
+
+    private ReceiverRecord<String, String> record(String value) {
+        return new ReceiverRecord<>(new ConsumerRecord<>("account-movements", 0, 7L, "t1", value), offset);
+    }
+}
@@ -0,0 +1,35 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+public class NearCachePropertiesTest {
+
+    @Test
+    void cacheOverrideKeepsConfiguredDefaults() {
+        Map<String, String> config = new HashMap<>();
+        config.put("transaction.cache.defaults.maximum-size", "10000");
+        config.put("transaction.cache.defaults.expire-after-write", "6h");
+        config.put("transaction.cache.defaults.refresh-after-write", "30m");
+        config.put("transaction.cache.caches.customer.maximum-size", "500");
+        NearCacheProperties properties = new Binder(new MapConfigurationPropertySource(config))
+                .bind("transaction.cache", NearCacheProperties.class).get();
+
+        NearCacheProperties.Spec customer = properties.specFor("customer");
+
+        assertEquals(500, customer.getMaximumSize());
+        assertEquals(Duration.ofHours(6), customer.getExpireAfterWrite());
+        assertEquals(Duration.ofMinutes(30), customer.getRefreshAfterWrite());
+        assertTrue(customer.isEnabled());
+        assertSame(properties.getDefaults(), properties.specFor("product"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class NearCacheTest {
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        NearCache<String> cache = new NearCache<>(new NearCacheProperties.Spec(),
+                id -> Mono.fromCallable(() -> id + "-" + loads.incrementAndGet()).delayElement(Duration.ofMillis(50)));
+
+        StepVerifier.create(Flux.range(0, 10).flatMap(i -> cache.get("c1")).distinct())
+                .expectNext("c1-1")
+                .verifyComplete();
+        StepVerifier.create(cache.get("c1"))
+                .expectNext("c1-1")
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(10L, cache.stats().get("hitCount"));
+    }
+
+    @Test
+    void emptyLoadIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        NearCache<String> cache = new NearCache<>(new NearCacheProperties.Spec(),
+                id -> Mono.fromRunnable(loads::incrementAndGet));
+
+        StepVerifier.create(cache.get("c1")).verifyComplete();
+        StepVerifier.create(cache.get("c1")).verifyComplete();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        AtomicInteger loads = new AtomicInteger();
+        NearCache<String> cache = new NearCache<>(new NearCacheProperties.Spec(),
+                id -> Mono.fromCallable(() -> id + "-" + loads.incrementAndGet()));
+
+        StepVerifier.create(cache.get("p1")).expectNext("p1-1").verifyComplete();
+        cache.invalidate("p1");
+        StepVerifier.create(cache.get("p1")).expectNext("p1-2").verifyComplete();
+    }
+
+    @Test
+    void invalidateAllForcesReloadOfEveryEntry() {
+        AtomicInteger loads = new AtomicInteger();
+        NearCache<String> cache = new NearCache<>(new NearCacheProperties.Spec(),
+                id -> Mono.fromCallable(() -> id + "-" + loads.incrementAndGet()));
+
+        StepVerifier.create(cache.get("p1")).expectNext("p1-1").verifyComplete();
+        StepVerifier.create(cache.get("p2")).expectNext("p2-2").verifyComplete();
+        cache.invalidateAll();
+        StepVerifier.create(cache.get("p1")).expectNext("p1-3").verifyComplete();
+        StepVerifier.create(cache.get("p2")).expectNext("p2-4").verifyComplete();
+    }
+}
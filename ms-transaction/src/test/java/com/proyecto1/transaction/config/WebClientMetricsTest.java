@@ -0,0 +1,83 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class WebClientMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsPayloadsAndReleasesInFlight() {
+        ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"id\":\"1\"}")
+                .build());
+
+        StepVerifier.create(client(exchange).post()
+                        .uri("/applyMovement/{id}", "62c8a1f0e4b0a1b2c3d4e5f6")
+                        .bodyValue("{\"amount\":10}")
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .expectNext("{\"id\":\"1\"}")
+                .verifyComplete();
+
+        assertEquals(10, summary("response", "/applyMovement/{id}").totalAmount());
+        assertEquals(0, registry.get(WebClientMetrics.IN_FLIGHT).tag("client.name", "deposit-service").gauge().value());
+    }
+
+    @Test
+    void normalizesIdsWhenNoTemplateIsUsed() {
+        ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+
+        StepVerifier.create(client(exchange).get()
+                        .uri(builder -> builder.path("/findByTransactionId/{id}").build("62c8a1f0e4b0a1b2c3d4e5f6"))
+                        .retrieve()
+                        .toBodilessEntity())
+                .expectError()
+                .verify();
+
+        assertEquals(1, registry.get(WebClientMetrics.ERRORS)
+                .tags("uri", "/findByTransactionId/{id}", "error", "HTTP_404", "method", "GET")
+                .counter().count());
+        assertNull(registry.find(WebClientMetrics.PAYLOAD).tag("direction", "request").summary());
+    }
+
+    @Test
+    void countsConnectionErrors() {
+        ExchangeFunction exchange = request -> Mono.error(new IOException("connection refused"));
+
+        StepVerifier.create(client(exchange).get().uri("/findAll").retrieve().bodyToMono(String.class))
+                .expectError()
+                .verify();
+
+        assertEquals(1, registry.get(WebClientMetrics.ERRORS).tag("error", "IOException").counter().count());
+        assertEquals(0, registry.get(WebClientMetrics.IN_FLIGHT).gauge().value());
+    }
+
+    private WebClient client(ExchangeFunction exchange) {
+        return WebClient.builder()
+                .baseUrl("http://deposit-service")
+                .exchangeFunction(exchange)
+                .filter(new WebClientMetrics(registry))
+                .build();
+    }
+
+    private DistributionSummary summary(String direction, String uri) {
+        return registry.get(WebClientMetrics.PAYLOAD).tags("direction", direction, "uri", uri).summary();
+    }
+}
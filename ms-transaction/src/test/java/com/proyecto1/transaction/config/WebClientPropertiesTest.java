@@ -0,0 +1,38 @@
+package com.proyecto1.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+// WebClientProperties es la misma en deposit, payment, purchase, signatory y withdrawal
+public class WebClientPropertiesTest {
+
+    @Test
+    void serviceOverrideKeepsSharedPoolSettings() {
+        Map<String, String> config = new HashMap<>();
+        config.put("webclient.pool.max-connections", "80");
+        config.put("webclient.pool.pending-acquire-timeout", "2s");
+        config.put("webclient.pool.compression", "false");
+        config.put("webclient.services.customer-service.max-connections", "200");
+        config.put("webclient.services.customer-service.max-idle-time", "10s");
+        WebClientProperties properties = new Binder(new MapConfigurationPropertySource(config))
+                .bind("webclient", WebClientProperties.class).get();
+
+        WebClientProperties.Pool customer = properties.poolFor("customer-service");
+
+        assertEquals(200, customer.getMaxConnections());
+        assertEquals(Duration.ofSeconds(10), customer.getMaxIdleTime());
+        assertEquals(Duration.ofSeconds(2), customer.getPendingAcquireTimeout());
+        assertFalse(customer.isCompression());
+        assertEquals(500, customer.getPendingAcquireMaxCount());
+        assertSame(properties.getPool(), properties.poolFor("product-service"));
+    }
+}
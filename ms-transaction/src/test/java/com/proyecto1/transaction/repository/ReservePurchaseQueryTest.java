@@ -0,0 +1,93 @@
+package com.proyecto1.transaction.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.proyecto1.transaction.entity.Transaction;
+
+import reactor.core.publisher.Mono;
+
+// El Mongo embebido de los tests no soporta $toDecimal ni updates con pipeline, asi que aqui se verifica
+// el documento que llega al servidor: el filtro ya pasado por QueryMapper y el pipeline del update
+public class ReservePurchaseQueryTest {
+
+    private static final String ID = "62c8a1f0e4b0a1b2c3d4e5f6";
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private TransactionRepositoryCustomImpl repository;
+    private MongoMappingContext mappingContext;
+    private QueryMapper queryMapper;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Transaction.class)))
+                .thenReturn(Mono.empty());
+        repository = new TransactionRepositoryCustomImpl();
+        repository.mongoTemplate = mongoTemplate;
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        queryMapper = new QueryMapper(converter);
+    }
+
+    @Test
+    void reservationMatchesOnlyWithinCreditLimitAndIncrementsInOneUpdate() {
+        repository.reservePurchase(ID, new BigDecimal("25.50"), new BigDecimal("100")).block();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Transaction.class));
+
+        Document newTotal = new Document("$add", Arrays.asList(
+                new Document("$toDecimal", new Document("$ifNull", Arrays.asList("$totalPurchases", new Decimal128(new BigDecimal("100"))))),
+                new Decimal128(new BigDecimal("25.50"))));
+        Document expectedFilter = new Document("_id", new ObjectId(ID))
+                .append("$expr", new Document("$lte", Arrays.asList(newTotal, new Document("$toDecimal", "$creditLimit"))));
+        assertEquals(expectedFilter, queryMapper.getMappedObject(query.getValue().getQueryObject(),
+                mappingContext.getPersistentEntity(Transaction.class)));
+
+        assertTrue(update.getValue() instanceof AggregationUpdate);
+        Document expectedSet = new Document("$set", new Document("totalPurchases", newTotal)
+                .append("movementCount", increment("$movementCount"))
+                .append("version", increment("$version")));
+        assertEquals(Collections.singletonList(expectedSet),
+                ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT));
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    private static Document increment(String field) {
+        return new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList(field, 0)), 1));
+    }
+}
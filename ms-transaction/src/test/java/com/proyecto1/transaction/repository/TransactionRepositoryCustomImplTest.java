@@ -0,0 +1,100 @@
+package com.proyecto1.transaction.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.proyecto1.transaction.entity.Transaction;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import reactor.test.StepVerifier;
+
+public class TransactionRepositoryCustomImplTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate mongoTemplate;
+    private TransactionRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new ReactiveMongoTemplate(client, "test");
+        repository = new TransactionRepositoryCustomImpl();
+        repository.mongoTemplate = mongoTemplate;
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void applyMovementWithoutPurchasesKeepsLegacyTotalUnset() {
+        String id = legacyAccount();
+
+        StepVerifier.create(repository.applyMovement(id, BigDecimal.TEN, BigDecimal.ZERO, 1, "e1"))
+                .expectNextMatches(account -> account.getTotalPurchases() == null
+                        && account.getAvailableBalance().compareTo(new BigDecimal("110")) == 0
+                        && account.getMovementCount() == 1L
+                        && account.getVersion() == 1L)
+                .verifyComplete();
+
+        Document stored = mongoTemplate.findById(new ObjectId(id), Document.class, collection()).block();
+        assertFalse(stored.containsKey("totalPurchases"));
+    }
+
+    @Test
+    void applyMovementIgnoresRepeatedEvent() {
+        String id = legacyAccount();
+
+        StepVerifier.create(repository.applyMovement(id, BigDecimal.TEN, BigDecimal.ZERO, 1, "e1"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.applyMovement(id, BigDecimal.TEN, BigDecimal.ZERO, 1, "e1"))
+                .verifyComplete();
+
+        Transaction stored = mongoTemplate.findById(id, Transaction.class).block();
+        assertEquals(0, new BigDecimal("110").compareTo(stored.getAvailableBalance()));
+    }
+
+    @Test
+    void initVersionOnlyTouchesDocumentsWithoutVersion() {
+        ObjectId id = ObjectId.get();
+        mongoTemplate.insert(new Document("_id", id).append("availableBalance", new Decimal128(BigDecimal.ONE)), collection()).block();
+
+        StepVerifier.create(repository.initVersion(id.toString())).verifyComplete();
+        StepVerifier.create(repository.applyMovement(id.toString(), BigDecimal.ONE, BigDecimal.ZERO, 1, null)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(repository.initVersion(id.toString())).verifyComplete();
+
+        assertEquals(1L, mongoTemplate.findById(id.toString(), Transaction.class).block().getVersion());
+    }
+
+    // Cuenta creada antes de los campos materializados: sin totalPurchases, movementCount ni materialized
+    private String legacyAccount() {
+        ObjectId id = ObjectId.get();
+        mongoTemplate.insert(new Document("_id", id)
+                .append("creditLimit", "500")
+                .append("availableBalance", new Decimal128(new BigDecimal("100")))
+                .append("version", 0L), collection()).block();
+        return id.toString();
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(Transaction.class);
+    }
+}
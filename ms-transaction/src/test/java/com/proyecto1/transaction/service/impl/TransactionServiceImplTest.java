@@ -1,6 +1,11 @@
 package com.proyecto1.transaction.service.impl;
 
 import com.proyecto1.transaction.client.*;
+import com.proyecto1.transaction.config.DetailProperties;
+import com.proyecto1.transaction.dto.AccountSummary;
+import com.proyecto1.transaction.dto.CustomerPosition;
+import com.proyecto1.transaction.dto.MovementDTO;
+import com.proyecto1.transaction.dto.ProductHolding;
 import com.proyecto1.transaction.entity.*;
 import com.proyecto1.transaction.repository.TransactionRepository;
 import org.bson.types.ObjectId;
@@ -9,17 +14,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(SpringExtension.class)
 public class TransactionServiceImplTest {
@@ -48,6 +62,9 @@ public class TransactionServiceImplTest {
     @Mock
     private WithDrawalClient withDrawalClient;
 
+    @Spy
+    private DetailProperties detailProperties = new DetailProperties();
+
     @InjectMocks
     private TransacionServiceImpl transacionServiceImpl;
 
@@ -142,6 +159,66 @@ public class TransactionServiceImplTest {
                 }));
     }
 
+    @Test
+    void findAllWithDetailFetchesChildCollectionsOnce(){
+        Customer customer = Customer.builder()
+                .id("2854445425")
+                .name("yasmin")
+                .lastName("oyarce")
+                .docNumber("2342342342")
+                .typeCustomer(1)
+                .descTypeCustomer("personal").build();
+
+        Product product = Product.builder()
+                .id("83457346534534")
+                .indProduct(2)
+                .descIndProduct("cuenta bancaria")
+                .typeProduct(1)
+                .descTypeProduct("cuenta de ahorro")
+                .build();
+
+        Deposit deposit = Deposit.builder()
+                .id(ObjectId.get().toString())
+                .date(LocalDate.now())
+                .depositAmount(BigDecimal.valueOf(200))
+                .description("demo 1")
+                .transactionId("84374234y743123")
+                .build();
+
+        Transaction first = Transaction.builder()
+                .id("84374234y743123")
+                .customerId(customer.getId())
+                .productId(product.getId())
+                .accountNumber("38748398273492734")
+                .build();
+
+        Transaction second = Transaction.builder()
+                .id("234234jnjk2345")
+                .customerId(customer.getId())
+                .productId(product.getId())
+                .accountNumber("38748398273492735")
+                .build();
+
+        Mockito.when(transactionRepository.findAll()).thenReturn(Flux.just(first, second));
+        Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
+        Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
+        Mockito.when(depositClient.getDeposit()).thenReturn(Flux.just(deposit));
+        Mockito.when(withDrawalClient.getWithDrawal()).thenReturn(Flux.empty());
+        Mockito.when(paymentClient.getPayment()).thenReturn(Flux.empty());
+        Mockito.when(purchaseClient.getPurchase()).thenReturn(Flux.empty());
+        Mockito.when(signatoryClient.getSignatory()).thenReturn(Flux.empty());
+
+        List<Transaction> result = transacionServiceImpl.findAllWithDetail().collectList().block();
+
+        assertEquals(2, result.size());
+        assertEquals(1, result.stream().filter(t -> t.getId().equals(first.getId())).findFirst().get().getDeposit().size());
+        assertEquals(0, result.stream().filter(t -> t.getId().equals(second.getId())).findFirst().get().getDeposit().size());
+        Mockito.verify(depositClient, Mockito.times(1)).getDeposit();
+        Mockito.verify(signatoryClient, Mockito.times(1)).getSignatory();
+        Mockito.verify(customerClient, Mockito.times(1)).getCustomer(customer.getId());
+        Mockito.verify(productClient, Mockito.times(1)).getProduct(product.getId());
+    }
+
     @Test
      void updateDepositTest() {
 
@@ -183,6 +260,7 @@ public class TransactionServiceImplTest {
         String id = "6767668789fds9";
 
         Mockito.when(transactionRepository.findById(id)).thenReturn(Mono.just(transactionMono));
+        Mockito.when(transactionRepository.initVersion(id)).thenReturn(Mono.empty());
         Mockito.when(transactionRepository.save(transactionMono)).thenReturn(Mono.just(transactionMono));
 
         assertDoesNotThrow(() -> transacionServiceImpl.update(transactionMono,id)
@@ -407,11 +485,11 @@ public class TransactionServiceImplTest {
         Mockito.when(transactionRepository.findById(transactionMono.getId())).thenReturn(Mono.just(transactionMono));
         Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
         Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
-        Mockito.when(depositClient.getDeposit()).thenReturn(Flux.just(deposit));
-        Mockito.when(withDrawalClient.getWithDrawal()).thenReturn(Flux.just(withdrawal));
-        Mockito.when(paymentClient.getPayment()).thenReturn(Flux.just(payment));
-        Mockito.when(purchaseClient.getPurchase()).thenReturn(Flux.just(purchase));
-        Mockito.when(signatoryClient.getSignatory()).thenReturn(Flux.just(signatory));
+        Mockito.when(depositClient.getDepositByTransactionId(transactionMono.getId())).thenReturn(Flux.just(deposit));
+        Mockito.when(withDrawalClient.getWithDrawalByTransactionId(transactionMono.getId())).thenReturn(Flux.just(withdrawal));
+        Mockito.when(paymentClient.getPaymentByTransactionId(transactionMono.getId())).thenReturn(Flux.just(payment));
+        Mockito.when(purchaseClient.getPurchaseByTransactionId(transactionMono.getId())).thenReturn(Flux.just(purchase));
+        Mockito.when(signatoryClient.getSignatoryByTransactionId(transactionMono.getId())).thenReturn(Flux.just(signatory));
 
 
         assertDoesNotThrow(() -> transacionServiceImpl.findByIdWithCustomer(transactionMono.getId())
@@ -420,6 +498,258 @@ public class TransactionServiceImplTest {
                 }));
     }
 
+    @Test
+    void findByIdWithCustomerKeepsPartialResult(){
+        Customer customer = Customer.builder()
+                .id("2854445425")
+                .name("yasmin")
+                .lastName("oyarce")
+                .docNumber("2342342342")
+                .typeCustomer(1)
+                .descTypeCustomer("personal").build();
+
+        Product product = Product.builder()
+                .id("83457346534534")
+                .indProduct(2)
+                .descIndProduct("cuenta bancaria")
+                .typeProduct(1)
+                .descTypeProduct("cuenta de ahorro")
+                .build();
+
+        Signatory signatory = Signatory.builder()
+                .id(ObjectId.get().toString())
+                .name("yasmin")
+                .lastName("zegarra")
+                .docNumber("8797897797")
+                .transactionId("84374234y743123")
+                .build();
+
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .customerId(customer.getId())
+                .productId(product.getId())
+                .accountNumber("38748398273492734")
+                .build();
+
+        Mockito.when(transactionRepository.findById(transactionMono.getId())).thenReturn(Mono.just(transactionMono));
+        Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
+        Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
+        Mockito.when(depositClient.getDepositByTransactionId(transactionMono.getId())).thenReturn(Flux.error(new RuntimeException("deposit-service down")));
+        Mockito.when(withDrawalClient.getWithDrawalByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(paymentClient.getPaymentByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(purchaseClient.getPurchaseByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(signatoryClient.getSignatoryByTransactionId(transactionMono.getId())).thenReturn(Flux.just(signatory));
+
+        Transaction response = transacionServiceImpl.findByIdWithCustomer(transactionMono.getId()).block();
+
+        assertEquals(customer, response.getCustomer());
+        assertEquals(product, response.getProduct());
+        assertEquals(0, response.getDeposit().size());
+        assertEquals(1, response.getSignatories().size());
+    }
+
+    @Test
+    void findByIdWithCustomerWithoutCustomer(){
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .customerId("2854445425")
+                .productId("83457346534534")
+                .build();
+
+        Mockito.when(transactionRepository.findById(transactionMono.getId())).thenReturn(Mono.just(transactionMono));
+        Mockito.when(customerClient.getCustomer(transactionMono.getCustomerId())).thenReturn(Mono.empty());
+        Mockito.when(productClient.getProduct(transactionMono.getProductId())).thenReturn(Mono.just(new Product()));
+        Mockito.when(depositClient.getDepositByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(withDrawalClient.getWithDrawalByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(paymentClient.getPaymentByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(purchaseClient.getPurchaseByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+        Mockito.when(signatoryClient.getSignatoryByTransactionId(transactionMono.getId())).thenReturn(Flux.empty());
+
+        assertNull(transacionServiceImpl.findByIdWithCustomer(transactionMono.getId()).block());
+    }
+
+    @Test
+    void findByIdWithCustomerRespectsMaxConcurrency(){
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .customerId("2854445425")
+                .productId("83457346534534")
+                .build();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        detailProperties.setMaxConcurrency(2);
+
+        Mockito.when(transactionRepository.findById(transactionMono.getId())).thenReturn(Mono.just(transactionMono));
+        Mockito.when(customerClient.getCustomer(transactionMono.getCustomerId())).thenReturn(tracked(Mono.just(Customer.builder().build()), active, maxActive));
+        Mockito.when(productClient.getProduct(transactionMono.getProductId())).thenReturn(tracked(Mono.just(new Product()), active, maxActive));
+        Mockito.when(depositClient.getDepositByTransactionId(transactionMono.getId())).thenReturn(tracked(Mono.just(Deposit.builder().build()), active, maxActive).flux());
+        Mockito.when(withDrawalClient.getWithDrawalByTransactionId(transactionMono.getId())).thenReturn(tracked(Mono.just(Withdrawal.builder().build()), active, maxActive).flux());
+        Mockito.when(paymentClient.getPaymentByTransactionId(transactionMono.getId())).thenReturn(tracked(Mono.just(Payment.builder().build()), active, maxActive).flux());
+        Mockito.when(purchaseClient.getPurchaseByTransactionId(transactionMono.getId())).thenReturn(tracked(Mono.just(Purchase.builder().build()), active, maxActive).flux());
+        Mockito.when(signatoryClient.getSignatoryByTransactionId(transactionMono.getId())).thenReturn(tracked(Mono.just(Signatory.builder().build()), active, maxActive).flux());
+
+        Transaction response = transacionServiceImpl.findByIdWithCustomer(transactionMono.getId()).block();
+
+        assertEquals(2, maxActive.get());
+        assertEquals(1, response.getDeposit().size());
+        assertEquals(1, response.getWithdrawal().size());
+        assertEquals(1, response.getPayments().size());
+        assertEquals(1, response.getPurchases().size());
+        assertEquals(1, response.getSignatories().size());
+    }
+
+    private static <T> Mono<T> tracked(Mono<T> call, AtomicInteger active, AtomicInteger maxActive) {
+        return call.delayElement(Duration.ofMillis(20))
+                .doOnSubscribe(s -> maxActive.accumulateAndGet(active.incrementAndGet(), Math::max))
+                .doOnTerminate(active::decrementAndGet);
+    }
+
+    @Test
+    void findSummaryByIdSkipsChildCollections(){
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .customerId("2854445425")
+                .productId("83457346534534")
+                .creditLimit(BigDecimal.valueOf(1500))
+                .build();
+
+        Mockito.when(transactionRepository.findSummaryById(transactionMono.getId())).thenReturn(Mono.just(transactionMono));
+        Mockito.when(customerClient.getCustomer(transactionMono.getCustomerId()))
+                .thenReturn(Mono.just(Customer.builder().id("2854445425").typeCustomer(2).build()));
+        Mockito.when(productClient.getProduct(transactionMono.getProductId()))
+                .thenReturn(Mono.just(Product.builder().id("83457346534534").indProduct(1).typeProduct(6).build()));
+
+        AccountSummary summary = transacionServiceImpl.findSummaryById(transactionMono.getId()).block();
+
+        assertEquals(BigDecimal.valueOf(1500), summary.getCreditLimit());
+        assertEquals(1, summary.getIndProduct());
+        assertEquals(6, summary.getTypeProduct());
+        assertEquals(2, summary.getTypeCustomer());
+        Mockito.verifyNoInteractions(depositClient, withDrawalClient, paymentClient, purchaseClient, signatoryClient);
+    }
+
+    @Test
+    void applyMovementWithdrawalDecreasesBalance(){
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .availableBalance(BigDecimal.valueOf(70))
+                .movementCount(3L)
+                .build();
+
+        Mockito.when(transactionRepository.applyMovement(transactionMono.getId(), BigDecimal.valueOf(30).negate(), BigDecimal.ZERO, 1, null))
+                .thenReturn(Mono.just(transactionMono));
+
+        MovementDTO movement = MovementDTO.builder().type(MovementDTO.Type.WITHDRAWAL).amount(BigDecimal.valueOf(30)).count(1).build();
+
+        assertEquals(transactionMono, transacionServiceImpl.applyMovement(transactionMono.getId(), movement).block());
+    }
+
+    @Test
+    void applyMovementPurchaseIncreasesTotalPurchases(){
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .totalPurchases(BigDecimal.valueOf(80))
+                .build();
+
+        Mockito.when(transactionRepository.applyMovement(transactionMono.getId(), BigDecimal.ZERO, BigDecimal.valueOf(80), 1, null))
+                .thenReturn(Mono.just(transactionMono));
+
+        MovementDTO movement = MovementDTO.builder().type(MovementDTO.Type.PURCHASE).amount(BigDecimal.valueOf(80)).count(1).build();
+
+        assertEquals(transactionMono, transacionServiceImpl.applyMovement(transactionMono.getId(), movement).block());
+    }
+
+    @Test
+    void applyMovementIgnoresRepeatedEvent(){
+        Transaction transactionMono = Transaction.builder()
+                .id("84374234y743123")
+                .availableBalance(BigDecimal.valueOf(100))
+                .build();
+
+        // El filtro por appliedEvents no coincide: el evento ya se aplico
+        Mockito.when(transactionRepository.applyMovement(transactionMono.getId(), BigDecimal.valueOf(100), BigDecimal.ZERO, 1, "62d0b0a1e4b0a1b2c3d4e5f6"))
+                .thenReturn(Mono.empty());
+        Mockito.when(transactionRepository.findById(transactionMono.getId())).thenReturn(Mono.just(transactionMono));
+
+        MovementDTO movement = MovementDTO.builder().type(MovementDTO.Type.DEPOSIT).amount(BigDecimal.valueOf(100)).count(1)
+                .eventId("62d0b0a1e4b0a1b2c3d4e5f6").build();
+
+        assertEquals(transactionMono, transacionServiceImpl.applyMovement(transactionMono.getId(), movement).block());
+    }
+
+    @Test
+    void applyMovementToMissingAccountFails(){
+        Mockito.when(transactionRepository.applyMovement("missing", BigDecimal.valueOf(100), BigDecimal.ZERO, 1, "62d0b0a1e4b0a1b2c3d4e5f6"))
+                .thenReturn(Mono.empty());
+        Mockito.when(transactionRepository.findById("missing")).thenReturn(Mono.empty());
+
+        MovementDTO movement = MovementDTO.builder().type(MovementDTO.Type.DEPOSIT).amount(BigDecimal.valueOf(100)).count(1)
+                .eventId("62d0b0a1e4b0a1b2c3d4e5f6").build();
+
+        StepVerifier.create(transacionServiceImpl.applyMovement("missing", movement))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.NOT_FOUND)
+                .verify();
+    }
+
+    @Test
+    void findPositionByCustomerIdGroupsByProductType(){
+        Product savings = Product.builder().id("83457346534534").indProduct(2).typeProduct(1).descTypeProduct("cuenta de ahorro").build();
+        Product card = Product.builder().id("99457346534599").indProduct(1).typeProduct(6).descTypeProduct("tarjeta de credito").build();
+        Customer customer = Customer.builder().id("2854445425").typeCustomer(1).build();
+
+        Mockito.when(transactionRepository.holdingsByCustomerId("2854445425")).thenReturn(Flux.just(
+                ProductHolding.builder().productId(savings.getId()).accountIds(Arrays.asList("a1", "a2"))
+                        .availableBalance(BigDecimal.valueOf(150)).creditLimit(BigDecimal.ZERO).totalPurchases(BigDecimal.ZERO).movementCount(2L).build(),
+                ProductHolding.builder().productId(card.getId()).accountIds(Arrays.asList("c1"))
+                        .availableBalance(BigDecimal.ZERO).creditLimit(BigDecimal.valueOf(500)).totalPurchases(BigDecimal.valueOf(80)).movementCount(2L).build()));
+        Mockito.when(productClient.getProduct(savings.getId())).thenReturn(Mono.just(savings));
+        Mockito.when(productClient.getProduct(card.getId())).thenReturn(Mono.just(card));
+        Mockito.when(customerClient.getCustomer("2854445425")).thenReturn(Mono.just(customer));
+        Mockito.when(depositClient.getDepositByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.just(
+                Deposit.builder().transactionId("a1").depositAmount(BigDecimal.valueOf(100)).build(),
+                Deposit.builder().transactionId("a2").depositAmount(BigDecimal.valueOf(50)).build()));
+        Mockito.when(withDrawalClient.getWithDrawalByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.empty());
+        Mockito.when(paymentClient.getPaymentByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.just(
+                Payment.builder().transactionId("c1").paymentAmount(BigDecimal.valueOf(30)).build()));
+        Mockito.when(purchaseClient.getPurchaseByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.just(
+                Purchase.builder().transactionId("c1").purchaseAmount(BigDecimal.valueOf(80)).build()));
+
+        CustomerPosition position = transacionServiceImpl.findPositionByCustomerId("2854445425").block();
+
+        assertEquals(2, position.getProducts().size());
+        assertEquals(Arrays.asList("a1", "a2"), position.getProducts().get(0).getAccountIds());
+        assertEquals(BigDecimal.valueOf(150), position.getProducts().get(0).getDepositTotal());
+        assertEquals(BigDecimal.valueOf(30), position.getProducts().get(1).getPaymentTotal());
+        assertEquals(BigDecimal.valueOf(80), position.getProducts().get(1).getPurchaseTotal());
+        assertEquals(BigDecimal.valueOf(150), position.getAvailableBalance());
+        assertEquals(BigDecimal.valueOf(500), position.getCreditLimit());
+        Mockito.verify(depositClient, Mockito.times(1)).getDepositByTransactionIds(Arrays.asList("a1", "a2", "c1"));
+        Mockito.verify(transactionRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void findPositionByCustomerIdFailsWhenABatchFails(){
+        Product savings = Product.builder().id("83457346534534").indProduct(2).typeProduct(1).descTypeProduct("cuenta de ahorro").build();
+        detailProperties.setIdsPerRequest(2);
+
+        Mockito.when(transactionRepository.holdingsByCustomerId("2854445425")).thenReturn(Flux.just(
+                ProductHolding.builder().productId(savings.getId()).accountIds(Arrays.asList("a1", "a2", "a3"))
+                        .availableBalance(BigDecimal.valueOf(150)).creditLimit(BigDecimal.ZERO).totalPurchases(BigDecimal.ZERO).movementCount(3L).build()));
+        Mockito.when(productClient.getProduct(savings.getId())).thenReturn(Mono.just(savings));
+        Mockito.when(customerClient.getCustomer("2854445425")).thenReturn(Mono.just(Customer.builder().id("2854445425").build()));
+        Mockito.when(depositClient.getDepositByTransactionIds(Arrays.asList("a1", "a2"))).thenReturn(Flux.just(
+                Deposit.builder().transactionId("a1").depositAmount(BigDecimal.valueOf(100)).build()));
+        Mockito.when(depositClient.getDepositByTransactionIds(Arrays.asList("a3"))).thenReturn(Flux.error(new RuntimeException("deposit-service down")));
+        Mockito.when(withDrawalClient.getWithDrawalByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.empty());
+        Mockito.when(paymentClient.getPaymentByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.empty());
+        Mockito.when(purchaseClient.getPurchaseByTransactionIds(Mockito.anyCollection())).thenReturn(Flux.empty());
+
+        StepVerifier.create(transacionServiceImpl.findPositionByCustomerId("2854445425"))
+                .expectErrorMessage("deposit-service down")
+                .verify();
+    }
+
     @Test
     void saveTransaction(){
 
@@ -455,9 +785,9 @@ public class TransactionServiceImplTest {
                 .product(product)
                 .build();
 
-        Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
-        Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
-        Mockito.when(transactionRepository.findAll()).thenReturn(Flux.just(transactionMono));
+        Mockito.when(productClient.getProduct(transactionMono.getProductId())).thenReturn(Mono.just(product));
+        Mockito.when(customerClient.getCustomer(transactionMono.getCustomerId())).thenReturn(Mono.just(customer));
+        Mockito.when(transactionRepository.existsByCustomerIdAndProductId(transactionMono.getCustomerId(), transactionMono.getProductId())).thenReturn(Mono.just(false));
 
 
         assertDoesNotThrow(() -> transacionServiceImpl.save(transactionMono)
@@ -465,4 +795,70 @@ public class TransactionServiceImplTest {
                     assertEquals(transactionMono.getAccountNumber(), response.getAccountNumber());
                 }));
     }
+
+    @Test
+    void savePersonalClientWithSecondBankAccount(){
+        Product product = Product.builder()
+                .id("83457346534534")
+                .indProduct(2)
+                .descIndProduct("cuenta bancaria")
+                .typeProduct(2)
+                .descTypeProduct("cuenta corriente")
+                .build();
+
+        Customer customer = Customer.builder()
+                .id("2854445425")
+                .name("yasmin")
+                .lastName("oyarce")
+                .docNumber("2342342342")
+                .typeCustomer(1)
+                .descTypeCustomer("personal").build();
+
+        Transaction transactionMono = Transaction.builder()
+                .customerId(customer.getId())
+                .productId(product.getId())
+                .accountNumber("38748398273492734")
+                .build();
+
+        Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
+        Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
+        Mockito.when(transactionRepository.existsByCustomerIdAndProductId(customer.getId(), product.getId())).thenReturn(Mono.just(true));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> transacionServiceImpl.save(transactionMono).block());
+        assertEquals("The personal client cannot have more than one bank account", error.getMessage());
+        Mockito.verify(transactionRepository, Mockito.never()).findAll();
+        Mockito.verify(transactionRepository, Mockito.never()).save(transactionMono);
+    }
+
+    @Test
+    void saveFirstAccountOfPersonalClient(){
+        Product product = Product.builder()
+                .id("83457346534534")
+                .indProduct(2)
+                .descIndProduct("cuenta bancaria")
+                .typeProduct(1)
+                .descTypeProduct("cuenta de ahorro")
+                .build();
+
+        Customer customer = Customer.builder()
+                .id("2854445425")
+                .name("yasmin")
+                .lastName("oyarce")
+                .docNumber("2342342342")
+                .typeCustomer(1)
+                .descTypeCustomer("personal").build();
+
+        Transaction transactionMono = Transaction.builder()
+                .customerId(customer.getId())
+                .productId(product.getId())
+                .accountNumber("38748398273492734")
+                .build();
+
+        Mockito.when(productClient.getProduct(product.getId())).thenReturn(Mono.just(product));
+        Mockito.when(customerClient.getCustomer(customer.getId())).thenReturn(Mono.just(customer));
+        Mockito.when(transactionRepository.existsByCustomerIdAndProductId(customer.getId(), product.getId())).thenReturn(Mono.just(false));
+        Mockito.when(transactionRepository.save(transactionMono)).thenReturn(Mono.just(transactionMono));
+
+        assertEquals(transactionMono.getAccountNumber(), transacionServiceImpl.save(transactionMono).block().getAccountNumber());
+    }
 }
@@ -0,0 +1,57 @@
+package com.proyecto1.withdrawal.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.proyecto1.withdrawal.entity.OutboxEvent;
+import com.proyecto1.withdrawal.repository.OutboxRepository;
+
+import reactor.core.publisher.Mono;
+
+// Guarda un movimiento junto con sus eventos de outbox. Con outbox.transactional ambos se confirman
+// en la misma transaccion; sin ella los eventos se escriben justo despues del movimiento
+@Component
+public class OutboxWriter {
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    OutboxProperties outboxProperties;
+
+    @Autowired
+    ReactiveMongoDatabaseFactory databaseFactory;
+
+    private TransactionalOperator transactionalOperator;
+
+    @PostConstruct
+    public void init() {
+        if (outboxProperties.isTransactional()) {
+            transactionalOperator = TransactionalOperator.create(new ReactiveMongoTransactionManager(databaseFactory));
+        }
+    }
+
+    public <T> Mono<T> write(Mono<T> movementWrite, Function<T, OutboxEvent> event) {
+        return writeAll(movementWrite, saved -> Collections.singletonList(event.apply(saved)));
+    }
+
+    public <T> Mono<T> writeAll(Mono<T> movementWrite, Function<T, List<OutboxEvent>> events) {
+        Mono<T> write = movementWrite.flatMap(saved -> {
+            List<OutboxEvent> pending = events.apply(saved);
+            if (pending.isEmpty()) {
+                return Mono.just(saved);
+            }
+            return outboxRepository.insert(pending).then(Mono.just(saved));
+        });
+        return transactionalOperator == null ? write : transactionalOperator.transactional(write);
+    }
+}
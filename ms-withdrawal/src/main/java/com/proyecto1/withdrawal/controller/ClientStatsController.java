@@ -0,0 +1,29 @@
+package com.proyecto1.withdrawal.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.proyecto1.withdrawal.client.TransactionClient;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/withdrawal/clients")
+public class ClientStatsController {
+
+    @Autowired
+    TransactionClient transactionClient;
+
+    // Peticiones recibidas, llamadas reales y porcentaje deduplicado por cliente
+    @GetMapping("/stats")
+    public Mono<Map<String, Map<String, Object>>> getStats(){
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("transactionClient", transactionClient.getSingleFlight().stats());
+        return Mono.just(stats);
+    }
+}
@@ -1,12 +1,21 @@
 package com.proyecto1.withdrawal.controller;
 
+import com.proyecto1.withdrawal.dto.BatchResult;
+import com.proyecto1.withdrawal.dto.KeysetPage;
 import com.proyecto1.withdrawal.entity.Withdrawal;
 import com.proyecto1.withdrawal.service.WithdrawalService;
 
 import com.proyecto1.withdrawal.service.impl.WithdrawalServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,10 +27,15 @@ public class WithdrawalController {
     @Autowired
     private WithdrawalService withdrawalService;
 
-    @GetMapping("/findAll")
-    public Flux<Withdrawal> getWithdrawals(){
+    @GetMapping(value = "/findAll", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Withdrawal>>> getWithdrawals(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
         log.info("Service call FindAll - withdrawal");
-        return withdrawalService.findAll();
+        // Sin after ni limit se responde la coleccion completa, como antes
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(withdrawalService.findAll()));
+        }
+        return withdrawalService.findPage(after, limit).map(KeysetPage::toResponse);
     }
 
     @GetMapping("/find/{id}")
@@ -30,12 +44,35 @@ public class WithdrawalController {
         return withdrawalService.findById(id);
     }
 
+    @GetMapping(value = "/findByTransactionId/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Withdrawal> getWithdrawalsByTransactionId(@PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        log.info("Service call FindByTransactionId - withdrawal");
+        if (from == null && to == null) {
+            return withdrawalService.findByTransactionId(id);
+        }
+        return withdrawalService.findByTransactionId(id, from, to);
+    }
+
+    @GetMapping(value = "/findByTransactionIds", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Withdrawal> getWithdrawalsByTransactionIds(@RequestParam List<String> ids){
+        log.info("Service call FindByTransactionIds - withdrawal");
+        return withdrawalService.findByTransactionIds(ids);
+    }
+
     @PostMapping("/create")
     public Mono<Withdrawal> createWithdrawal(@RequestBody Withdrawal c){
         log.info("Service call Create - withdrawal");
         return withdrawalService.create(c);
     }
 
+    @PostMapping(value = "/createBatch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchResult> createWithdrawalBatch(@RequestBody Flux<Withdrawal> withdrawals){
+        log.info("Service call createBatch - withdrawal");
+        return withdrawalService.createBatch(withdrawals);
+    }
+
     @PutMapping("/update/{id}")
     public Mono<Withdrawal> updateWithdrawal(@RequestBody Withdrawal c, @PathVariable String id){
         log.info("Service call Update - withdrawal");
@@ -0,0 +1,22 @@
+package com.proyecto1.withdrawal.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cambio que ms-transaction aplica sobre el saldo y los contadores de la cuenta
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementDTO {
+
+    private String type;
+    private BigDecimal amount;
+    private int count;
+    // Id del evento de outbox; ms-transaction lo usa para no aplicar dos veces el mismo movimiento
+    private String eventId;
+}
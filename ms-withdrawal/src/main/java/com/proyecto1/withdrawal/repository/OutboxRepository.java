@@ -0,0 +1,15 @@
+package com.proyecto1.withdrawal.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.proyecto1.withdrawal.entity.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface OutboxRepository extends ReactiveMongoRepository<OutboxEvent, String> {
+
+    Flux<OutboxEvent> findByPublishedAtIsNullAndParkedAtIsNullOrderByCreatedAtAsc(Pageable pageable);
+}
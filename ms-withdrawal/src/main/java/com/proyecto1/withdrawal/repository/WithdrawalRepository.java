@@ -1,10 +1,30 @@
 package com.proyecto1.withdrawal.repository;
 
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 import com.proyecto1.withdrawal.entity.Withdrawal;
 
+import reactor.core.publisher.Flux;
+
 @Repository
-public interface WithdrawalRepository extends ReactiveCrudRepository<Withdrawal, String> {
+public interface WithdrawalRepository extends ReactiveMongoRepository<Withdrawal, String> {
+
+    Flux<Withdrawal> findByTransactionId(String transactionId);
+
+    Flux<Withdrawal> findByTransactionIdOrderByDateAsc(String transactionId);
+
+    // Rango inclusivo en ambos extremos; el Between derivado excluye los limites
+    @Query(value = "{ 'transactionId': ?0, 'date': { $gte: ?1, $lte: ?2 } }", sort = "{ 'date': 1 }")
+    Flux<Withdrawal> findByTransactionIdAndDateRange(String transactionId, LocalDate from, LocalDate to);
+
+    Flux<Withdrawal> findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(String transactionId, LocalDate from);
+
+    Flux<Withdrawal> findByTransactionIdAndDateLessThanEqualOrderByDateAsc(String transactionId, LocalDate to);
+
+    Flux<Withdrawal> findByTransactionIdIn(Collection<String> transactionIds);
 }
@@ -1,7 +1,12 @@
 package com.proyecto1.withdrawal.service;
 
+import com.proyecto1.withdrawal.dto.BatchResult;
+import com.proyecto1.withdrawal.dto.KeysetPage;
 import com.proyecto1.withdrawal.entity.Withdrawal;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,10 +14,20 @@ public interface WithdrawalService {
 
     Flux<Withdrawal> findAll();
 
+    Mono<KeysetPage<Withdrawal>> findPage(String after, Integer limit);
+
     Mono<Withdrawal> create(Withdrawal c);
 
+    Flux<BatchResult> createBatch(Flux<Withdrawal> withdrawals);
+
     Mono<Withdrawal> findById(String id);
 
+    Flux<Withdrawal> findByTransactionId(String id);
+
+    Flux<Withdrawal> findByTransactionId(String id, LocalDate from, LocalDate to);
+
+    Flux<Withdrawal> findByTransactionIds(List<String> ids);
+
     Mono<Withdrawal> update(Withdrawal c, String id);
 
     Mono<Withdrawal> delete(String id);
@@ -1,25 +1,52 @@
 package com.proyecto1.withdrawal.service.impl;
 
 import com.proyecto1.withdrawal.client.TransactionClient;
+import com.proyecto1.withdrawal.config.KeysetPager;
+import com.proyecto1.withdrawal.config.OutboxWriter;
+import com.proyecto1.withdrawal.dto.BatchResult;
+import com.proyecto1.withdrawal.dto.KeysetPage;
+import com.proyecto1.withdrawal.entity.OutboxEvent;
 import com.proyecto1.withdrawal.entity.Withdrawal;
 import com.proyecto1.withdrawal.repository.WithdrawalRepository;
 import com.proyecto1.withdrawal.service.WithdrawalService;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Service
 public class WithdrawalServiceImpl implements WithdrawalService {
 
     private static final Logger log = LogManager.getLogger(WithdrawalServiceImpl.class);
+    // Registros por insertMany y validaciones de cuenta concurrentes en createBatch
+    private static final int BATCH_SIZE = 500;
+    private static final int VALIDATION_CONCURRENCY = 16;
 
     @Autowired
     WithdrawalRepository withdrawalRepository;
 
+    @Autowired
+    KeysetPager keysetPager;
+
+    @Autowired
+    OutboxWriter outboxWriter;
+
     @Autowired
     TransactionClient transactionClient;
     @Override
@@ -28,15 +55,22 @@ public class WithdrawalServiceImpl implements WithdrawalService {
         return withdrawalRepository.findAll();
     }
 
+    @Override
+    public Mono<KeysetPage<Withdrawal>> findPage(String after, Integer limit) {
+        log.info("Method call FindPage - withdrawal");
+        return keysetPager.page(Withdrawal.class, after, limit, Withdrawal::getId);
+    }
+
     @Override
     public Mono<Withdrawal> create(Withdrawal c) {
         log.info("Method call Create - withdrawal");
-        return transactionClient.getTransactionWithDetails(c.getTransactionId())
-                .filter( x -> x.getProduct().getIndProduct() == 2)
+        return transactionClient.getAccountSummary(c.getTransactionId())
+                .filter( x -> x.getIndProduct() == 2)
                 .hasElement()
                 .flatMap( y -> {
                     if(y){
-                        return withdrawalRepository.save(c);
+                        return outboxWriter.write(withdrawalRepository.save(c),
+                                saved -> movement(saved.getTransactionId(), saved.getWithdrawalAmount(), 1));
                     }else{
                         return Mono.error(new RuntimeException("The account entered is not a bank account"));
                     }
@@ -44,27 +78,158 @@ public class WithdrawalServiceImpl implements WithdrawalService {
 
     }
 
+
+    @Override
+    public Flux<BatchResult> createBatch(Flux<Withdrawal> withdrawals) {
+        log.info("Method call createBatch - withdrawal");
+        return withdrawals.index()
+                .buffer(BATCH_SIZE)
+                .concatMap(this::createChunk);
+    }
+
     @Override
     public Mono<Withdrawal> findById(String id) {
         log.info("Method call FindById - withdrawal");
         return withdrawalRepository.findById(id);
     }
 
+    @Override
+    public Flux<Withdrawal> findByTransactionId(String id) {
+        return findByTransactionId(id, null, null);
+    }
+
+    @Override
+    public Flux<Withdrawal> findByTransactionId(String id, LocalDate from, LocalDate to) {
+        log.info("Method call FindByTransactionId - withdrawal");
+        if (from == null && to == null) {
+            return withdrawalRepository.findByTransactionIdOrderByDateAsc(id);
+        }
+        if (from != null && to != null) {
+            if (from.isAfter(to)) {
+                return Flux.error(new RuntimeException("The start date must not be after the end date"));
+            }
+            return withdrawalRepository.findByTransactionIdAndDateRange(id, from, to);
+        }
+        // Un extremo nulo deja el rango abierto; todas las variantes recorren el indice (transactionId, date)
+        if (from != null) {
+            return withdrawalRepository.findByTransactionIdAndDateGreaterThanEqualOrderByDateAsc(id, from);
+        }
+        return withdrawalRepository.findByTransactionIdAndDateLessThanEqualOrderByDateAsc(id, to);
+    }
+
+    @Override
+    public Flux<Withdrawal> findByTransactionIds(List<String> ids) {
+        log.info("Method call FindByTransactionIds - withdrawal");
+        return withdrawalRepository.findByTransactionIdIn(ids);
+    }
+
     @Override
     public Mono<Withdrawal> update(Withdrawal c, String id) {
         log.info("Method call Update - withdrawal");
         return withdrawalRepository.findById(id)
-                .map( x -> {
+                .flatMap( x -> {
+                    BigDecimal delta = amountOf(c.getWithdrawalAmount()).subtract(amountOf(x.getWithdrawalAmount()));
                     x.setDate(c.getDate());
                     x.setWithdrawalAmount(c.getWithdrawalAmount());
                     x.setDescription(c.getDescription());
-                    return x;
-                }).flatMap(withdrawalRepository::save);
+                    return outboxWriter.write(withdrawalRepository.save(x),
+                            saved -> movement(saved.getTransactionId(), delta, 0));
+                });
     }
 
     @Override
     public Mono<Withdrawal> delete(String id) {
         log.info("Method call Delete - withdrawal");
-        return withdrawalRepository.findById(id).flatMap( x -> withdrawalRepository.delete(x).then(Mono.just(new Withdrawal())));
+        return withdrawalRepository.findById(id).flatMap( x -> outboxWriter.write(withdrawalRepository.delete(x).thenReturn(x),
+                        deleted -> movement(x.getTransactionId(), amountOf(x.getWithdrawalAmount()).negate(), -1))
+                .then(Mono.just(new Withdrawal())));
+    }
+
+    // Cada cuenta se valida una sola vez por bloque, los registros validos se insertan en un solo comando
+    // y el saldo se actualiza con un evento por cuenta en lugar de uno por registro
+    private Flux<BatchResult> createChunk(List<Tuple2<Long, Withdrawal>> chunk) {
+        return validateAccounts(chunk)
+                .flatMapMany(rejections -> {
+                    List<Tuple2<Long, Withdrawal>> accepted = new ArrayList<>();
+                    List<BatchResult> results = new ArrayList<>();
+                    for (Tuple2<Long, Withdrawal> t : chunk) {
+                        String rejection = rejections.getOrDefault(t.getT2().getTransactionId(), "The account entered is not a bank account");
+                        if (rejection.isEmpty()) {
+                            accepted.add(t);
+                        } else {
+                            results.add(rejected(t.getT1(), t.getT2().getTransactionId(), rejection));
+                        }
+                    }
+                    return insertAll(accepted)
+                            .flatMapMany(outcomes -> {
+                                results.addAll(outcomes);
+                                results.sort(Comparator.comparingLong(BatchResult::getIndex));
+                                return Flux.fromIterable(results);
+                            });
+                });
+    }
+
+    // Motivo de rechazo por cuenta; cadena vacia si la cuenta es valida
+    private Mono<Map<String, String>> validateAccounts(List<Tuple2<Long, Withdrawal>> chunk) {
+        return Flux.fromStream(chunk.stream().map(t -> t.getT2().getTransactionId()).filter(Objects::nonNull).distinct())
+                .flatMap(id -> transactionClient.getAccountSummary(id)
+                        .map(x -> x.getIndProduct() == 2 ? "" : "The account entered is not a bank account")
+                        .defaultIfEmpty("The account entered is not a bank account")
+                        .onErrorResume(e -> Mono.just("Account validation failed: " + e.getMessage()))
+                        .map(rejection -> Tuples.of(id, rejection)), VALIDATION_CONCURRENCY)
+                .collectMap(Tuple2::getT1, Tuple2::getT2);
+    }
+
+    // Un solo insertMany por bloque; si falla se guarda uno a uno para atribuir el error a cada registro.
+    // Los ids se asignan antes para que el reintento no duplique los que ya quedaron insertados
+    private Mono<List<BatchResult>> insertAll(List<Tuple2<Long, Withdrawal>> accepted) {
+        if (accepted.isEmpty()) {
+            return Mono.just(new ArrayList<>());
+        }
+        List<Withdrawal> withdrawals = accepted.stream().map(Tuple2::getT2).collect(Collectors.toList());
+        withdrawals.stream().filter(x -> x.getId() == null).forEach(x -> x.setId(ObjectId.get().toString()));
+        return outboxWriter.writeAll(withdrawalRepository.insert(withdrawals).collectList(), WithdrawalServiceImpl::movements)
+                .then(Mono.fromSupplier(() -> accepted.stream()
+                        .map(t -> created(t.getT1(), t.getT2()))
+                        .collect(Collectors.toList())))
+                .onErrorResume(e -> {
+                    log.warn("Bulk insert failed, saving one by one - withdrawal: " + e.getMessage());
+                    return Flux.fromIterable(accepted)
+                            .concatMap(t -> outboxWriter.write(withdrawalRepository.save(t.getT2()),
+                                    saved -> movement(saved.getTransactionId(), saved.getWithdrawalAmount(), 1))
+                                    .map(saved -> created(t.getT1(), saved))
+                                    .onErrorResume(error -> Mono.just(rejected(t.getT1(), t.getT2().getTransactionId(), error.getMessage()))))
+                            .collectList();
+                });
+    }
+
+    // Un evento por cuenta con el importe y la cantidad acumulados del bloque
+    private static List<OutboxEvent> movements(List<Withdrawal> withdrawals) {
+        Map<String, List<Withdrawal>> byAccount = withdrawals.stream()
+                .collect(Collectors.groupingBy(Withdrawal::getTransactionId, LinkedHashMap::new, Collectors.toList()));
+        return byAccount.entrySet().stream()
+                .map(e -> movement(e.getKey(),
+                        e.getValue().stream().map(x -> amountOf(x.getWithdrawalAmount())).reduce(BigDecimal.ZERO, BigDecimal::add),
+                        e.getValue().size()))
+                .collect(Collectors.toList());
+    }
+
+    private static BatchResult created(long index, Withdrawal withdrawal) {
+        return BatchResult.builder().index(index).id(withdrawal.getId()).transactionId(withdrawal.getTransactionId())
+                .status(BatchResult.CREATED).build();
+    }
+
+    private static BatchResult rejected(long index, String transactionId, String message) {
+        return BatchResult.builder().index(index).transactionId(transactionId)
+                .status(BatchResult.REJECTED).message(message).build();
+    }
+
+    // El evento queda en el outbox junto con el movimiento y OutboxRelay lo entrega a ms-transaction
+    private static OutboxEvent movement(String transactionId, BigDecimal amount, int count) {
+        return OutboxEvent.movement("WITHDRAWAL", transactionId, amount, count);
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
     }
 }
@@ -0,0 +1,105 @@
+package com.proyecto1.withdrawal.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.proyecto1.withdrawal.entity.OutboxEvent;
+import com.proyecto1.withdrawal.repository.OutboxRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class OutboxRelayTest {
+
+    @Test
+    void publishesPendingEventsInOrder() {
+        OutboxEvent first = OutboxEvent.movement("WITHDRAWAL", "t1", BigDecimal.TEN, 1);
+        OutboxEvent second = OutboxEvent.movement("WITHDRAWAL", "t1", BigDecimal.ONE, 1);
+        InMemoryMovementBroker broker = new InMemoryMovementBroker();
+        OutboxRelay relay = relay(broker, first, second);
+        List<OutboxEvent> published = new ArrayList<>();
+        broker.events().subscribe(published::add);
+
+        StepVerifier.create(relay.relayPending())
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertEquals(List.of(first.getId(), second.getId()), List.of(published.get(0).getId(), published.get(1).getId()));
+        assertNotNull(first.getPublishedAt());
+        assertNotNull(second.getPublishedAt());
+    }
+
+    @Test
+    void holdsLaterEventsOfAFailingAccountOnly() {
+        OutboxEvent failing = OutboxEvent.movement("WITHDRAWAL", "t1", BigDecimal.TEN, 1);
+        OutboxEvent sameAccount = OutboxEvent.movement("WITHDRAWAL", "t1", BigDecimal.ONE, 1);
+        OutboxEvent otherAccount = OutboxEvent.movement("WITHDRAWAL", "t2", BigDecimal.ONE, 1);
+        MovementBroker broker = event -> event == failing ? Mono.error(new IllegalStateException("broker down")) : Mono.empty();
+        OutboxRelay relay = relay(broker, failing, sameAccount, otherAccount);
+
+        StepVerifier.create(relay.relayPending())
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertNull(failing.getPublishedAt());
+        assertEquals(1, failing.getAttempts());
+        assertEquals("broker down", failing.getLastError());
+        assertNull(sameAccount.getPublishedAt());
+        assertEquals(0, sameAccount.getAttempts());
+        assertNotNull(otherAccount.getPublishedAt());
+    }
+
+    @Test
+    void parksRejectedEventAfterMaxAttempts() {
+        OutboxEvent rejected = OutboxEvent.movement("WITHDRAWAL", "t1", BigDecimal.TEN, 1);
+        rejected.setAttempts(4);
+        MovementBroker broker = event -> Mono.error(WebClientResponseException.create(
+                HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null));
+        OutboxRelay relay = relay(broker, rejected);
+
+        StepVerifier.create(relay.relayPending())
+                .expectNext(0L)
+                .verifyComplete();
+
+        assertEquals(5, rejected.getAttempts());
+        assertNotNull(rejected.getParkedAt());
+    }
+
+    @Test
+    void keepsRetryingTransientFailures() {
+        OutboxEvent pending = OutboxEvent.movement("WITHDRAWAL", "t1", BigDecimal.TEN, 1);
+        pending.setAttempts(50);
+        MovementBroker broker = event -> Mono.error(WebClientResponseException.create(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null));
+        OutboxRelay relay = relay(broker, pending);
+
+        StepVerifier.create(relay.relayPending())
+                .expectNext(0L)
+                .verifyComplete();
+
+        assertEquals(51, pending.getAttempts());
+        assertNull(pending.getParkedAt());
+    }
+
+    private static OutboxRelay relay(MovementBroker broker, OutboxEvent... pending) {
+        OutboxRepository repository = Mockito.mock(OutboxRepository.class);
+        Mockito.when(repository.findByPublishedAtIsNullAndParkedAtIsNullOrderByCreatedAtAsc(Mockito.any())).thenReturn(Flux.just(pending));
+        Mockito.when(repository.save(Mockito.any(OutboxEvent.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        OutboxRelay relay = new OutboxRelay();
+        relay.outboxRepository = repository;
+        relay.movementBroker = broker;
+        relay.outboxProperties = new OutboxProperties();
+        return relay;
+    }
+}
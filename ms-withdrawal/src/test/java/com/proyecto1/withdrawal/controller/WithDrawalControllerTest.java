@@ -1,5 +1,6 @@
 package com.proyecto1.withdrawal.controller;
 
+import com.proyecto1.withdrawal.dto.BatchResult;
 import com.proyecto1.withdrawal.entity.Withdrawal;
 import com.proyecto1.withdrawal.service.WithdrawalService;
 import com.proyecto1.withdrawal.service.impl.WithdrawalServiceImpl;
@@ -20,6 +21,8 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Mockito.times;
 
@@ -99,6 +102,49 @@ public class WithDrawalControllerTest {
         Mockito.verify(withdrawalService,times(1)).findAll();
     }
 
+    @Test
+    void findByTransactionId() {
+        Withdrawal withdrawal = Withdrawal.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+
+        Mockito.when(withdrawalService.findByTransactionId("342873574h")).thenReturn(Flux.just(withdrawal));
+
+        webTestClient.get()
+                .uri("/withdrawal/findByTransactionId/{id}", "342873574h")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].transactionId").isEqualTo("342873574h");
+
+        Mockito.verify(withdrawalService,times(1)).findByTransactionId("342873574h");
+    }
+
+    @Test
+    void findByTransactionIds() {
+        Withdrawal withdrawal = Withdrawal.builder()
+                .id(ObjectId.get().toString())
+                .transactionId("342873574h")
+                .build();
+        List<String> ids = Arrays.asList("342873574h", "6767668789fds9");
+
+        Mockito.when(withdrawalService.findByTransactionIds(ids)).thenReturn(Flux.just(withdrawal));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/withdrawal/findByTransactionIds")
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Withdrawal.class).hasSize(1);
+
+        Mockito.verify(withdrawalService,times(1)).findByTransactionIds(ids);
+    }
+
     @Test
      void FindById() {
 
@@ -149,4 +195,24 @@ public class WithDrawalControllerTest {
         Mockito.verify(withdrawalService,times(1)).delete(id);
 
     }
+
+    @Test
+    void createBatchFromNdjson() {
+        Mockito.when(withdrawalService.createBatch(Mockito.any())).thenAnswer(invocation -> invocation.<Flux<Withdrawal>>getArgument(0)
+                .index()
+                .map(t -> BatchResult.builder().index(t.getT1()).transactionId(t.getT2().getTransactionId())
+                        .status(BatchResult.CREATED).build()));
+
+        webTestClient.post().uri("/withdrawal/createBatch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"withdrawalAmount\":200,\"transactionId\":\"234234jnjk2345\"}\n"
+                        + "{\"withdrawalAmount\":50,\"transactionId\":\"99999999999\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BatchResult.class)
+                .contains(BatchResult.builder().index(0).transactionId("234234jnjk2345").status(BatchResult.CREATED).build(),
+                        BatchResult.builder().index(1).transactionId("99999999999").status(BatchResult.CREATED).build());
+    }
 }
@@ -1,6 +1,10 @@
 package com.proyecto1.withdrawal.service.impl;
 
 import com.proyecto1.withdrawal.client.TransactionClient;
+import com.proyecto1.withdrawal.config.OutboxWriter;
+import com.proyecto1.withdrawal.dto.AccountSummary;
+import com.proyecto1.withdrawal.dto.BatchResult;
+import com.proyecto1.withdrawal.entity.OutboxEvent;
 import com.proyecto1.withdrawal.entity.Product;
 import com.proyecto1.withdrawal.entity.Transaction;
 import com.proyecto1.withdrawal.entity.Withdrawal;
@@ -14,12 +18,18 @@ import org.mockito.Mockito;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @ExtendWith(SpringExtension.class)
 public class WithDrawalServiceImplTest {
@@ -30,6 +40,9 @@ public class WithDrawalServiceImplTest {
     @Mock
     private TransactionClient transactionClient;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private WithdrawalServiceImpl withdrawalServiceImpl;
 
@@ -66,8 +79,16 @@ public class WithDrawalServiceImplTest {
         transaction.setProduct(product);
 
 
-        Mockito.when(transactionClient.getTransactionWithDetails(transaction.getId())).thenReturn(Mono.just(transaction));
+        AccountSummary summary = AccountSummary.builder()
+                .id(transaction.getId())
+                .creditLimit(transaction.getCreditLimit())
+                .indProduct(product.getIndProduct())
+                .typeProduct(product.getTypeProduct())
+                .build();
+
+        Mockito.when(transactionClient.getAccountSummary(transaction.getId())).thenReturn(Mono.just(summary));
         Mockito.when(withdrawalRepository.save(Mockito.any())).thenReturn(Mono.just(withdrawalMono));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> withdrawalServiceImpl.create(withdrawalMono)
                 .subscribe(response -> {
@@ -87,6 +108,7 @@ public class WithDrawalServiceImplTest {
 
         Mockito.when(withdrawalRepository.findById(id)).thenReturn(Mono.just(withdrawalMono));
         Mockito.when(withdrawalRepository.save(withdrawalMono)).thenReturn(Mono.just(withdrawalMono));
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> withdrawalServiceImpl.update(withdrawalMono,id)
                 .subscribe(response -> {
@@ -145,6 +167,7 @@ public class WithDrawalServiceImplTest {
 
         Mockito.when(withdrawalRepository.findById("6767668789fds9")).thenReturn(Mono.just(withdrawalMono));
         Mockito.when(withdrawalRepository.delete(withdrawalMono)).thenReturn(Mono.empty());
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         assertDoesNotThrow(() -> withdrawalServiceImpl.delete(id)
                 .subscribe(response -> {
@@ -152,4 +175,118 @@ public class WithDrawalServiceImplTest {
                 }));
 
     }
+
+    @Test
+    void createBatchValidatesEachAccountOnce() {
+        Flux<Withdrawal> batch = Flux.just(
+                Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(100)).transactionId("34242423234").build(),
+                Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(50)).transactionId("99999999999").build(),
+                Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(25)).transactionId("34242423234").build(),
+                Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(75)).transactionId("34242423234").build());
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(2).build()));
+        Mockito.when(transactionClient.getAccountSummary("99999999999"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("99999999999").indProduct(1).build()));
+        Mockito.when(withdrawalRepository.insert(Mockito.anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Withdrawal>>getArgument(0)));
+        List<OutboxEvent> events = recordOutboxEvents();
+
+        StepVerifier.create(withdrawalServiceImpl.createBatch(batch))
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .assertNext(r -> {
+                    assertEquals(1, r.getIndex());
+                    assertEquals(BatchResult.REJECTED, r.getStatus());
+                })
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .verifyComplete();
+
+        Mockito.verify(transactionClient, Mockito.times(1)).getAccountSummary("34242423234");
+        Mockito.verify(withdrawalRepository, Mockito.times(1)).insert(Mockito.anyList());
+        assertEquals(1, events.size());
+        assertEquals("34242423234", events.get(0).getTransactionId());
+        assertEquals("WITHDRAWAL", events.get(0).getType());
+        assertEquals(BigDecimal.valueOf(200), events.get(0).getAmount());
+        assertEquals(3, events.get(0).getCount());
+        Mockito.verify(transactionClient, Mockito.never()).applyMovement(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void createBatchInsertsInChunks() {
+        Flux<Withdrawal> batch = Flux.range(0, 501)
+                .map(i -> Withdrawal.builder().withdrawalAmount(BigDecimal.ONE).transactionId("34242423234").build());
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(2).build()));
+        List<Integer> inserted = new ArrayList<>();
+        Mockito.when(withdrawalRepository.insert(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Withdrawal> withdrawals = invocation.getArgument(0);
+            inserted.add(withdrawals.size());
+            return Flux.fromIterable(withdrawals);
+        });
+        List<OutboxEvent> events = recordOutboxEvents();
+
+        StepVerifier.create(withdrawalServiceImpl.createBatch(batch))
+                .expectNextCount(501)
+                .verifyComplete();
+
+        // 500 registros por bloque; cada bloque valida la cuenta y emite un solo evento
+        assertEquals(Arrays.asList(500, 1), inserted);
+        Mockito.verify(transactionClient, Mockito.times(2)).getAccountSummary("34242423234");
+        assertEquals(2, events.size());
+        assertEquals(500, events.get(0).getCount());
+        assertEquals(BigDecimal.valueOf(500), events.get(0).getAmount());
+        assertEquals(1, events.get(1).getCount());
+    }
+
+    @Test
+    void createBatchSavesOneByOneWhenBulkInsertFails() {
+        Withdrawal first = Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(100)).transactionId("34242423234").build();
+        Withdrawal duplicated = Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(50)).transactionId("34242423234").build();
+        Withdrawal last = Withdrawal.builder().withdrawalAmount(BigDecimal.valueOf(25)).transactionId("34242423234").build();
+
+        Mockito.when(transactionClient.getAccountSummary("34242423234"))
+                .thenReturn(Mono.just(AccountSummary.builder().id("34242423234").indProduct(2).build()));
+        Mockito.when(withdrawalRepository.insert(Mockito.anyList())).thenReturn(Flux.error(new IllegalStateException("bulk write error")));
+        Mockito.when(withdrawalRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            Withdrawal withdrawal = invocation.getArgument(0);
+            return withdrawal == duplicated ? Mono.error(new IllegalStateException("duplicate key")) : Mono.just(withdrawal);
+        });
+        List<OutboxEvent> events = recordOutboxEvents();
+
+        StepVerifier.create(withdrawalServiceImpl.createBatch(Flux.just(first, duplicated, last)))
+                .assertNext(r -> {
+                    assertEquals(BatchResult.CREATED, r.getStatus());
+                    assertEquals(first.getId(), r.getId());
+                })
+                .assertNext(r -> {
+                    assertEquals(BatchResult.REJECTED, r.getStatus());
+                    assertEquals("duplicate key", r.getMessage());
+                })
+                .assertNext(r -> assertEquals(BatchResult.CREATED, r.getStatus()))
+                .verifyComplete();
+
+        // Los ids se asignan antes del insertMany y se conservan en el reintento
+        assertNotNull(first.getId());
+        Mockito.verify(withdrawalRepository, Mockito.times(3)).save(Mockito.any());
+        assertEquals(2, events.size());
+        assertEquals(BigDecimal.valueOf(100), events.get(0).getAmount());
+        assertEquals(1, events.get(0).getCount());
+        assertEquals(BigDecimal.valueOf(25), events.get(1).getAmount());
+    }
+
+    // Aplica las funciones de evento del outbox sobre lo guardado para poder inspeccionar los movimientos
+    private List<OutboxEvent> recordOutboxEvents() {
+        List<OutboxEvent> events = new ArrayList<>();
+        Mockito.when(outboxWriter.writeAll(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            Function<List<Withdrawal>, List<OutboxEvent>> eventsOf = invocation.getArgument(1);
+            return invocation.<Mono<List<Withdrawal>>>getArgument(0).doOnNext(saved -> events.addAll(eventsOf.apply(saved)));
+        });
+        Mockito.when(outboxWriter.write(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            Function<Withdrawal, OutboxEvent> eventOf = invocation.getArgument(1);
+            return invocation.<Mono<Withdrawal>>getArgument(0).doOnNext(saved -> events.add(eventOf.apply(saved)));
+        });
+        return events;
+    }
 }